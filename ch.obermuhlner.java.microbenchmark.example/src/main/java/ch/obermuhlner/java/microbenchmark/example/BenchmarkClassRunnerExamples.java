@@ -3,13 +3,19 @@ package ch.obermuhlner.java.microbenchmark.example;
 import ch.obermuhlner.java.microbenchmark.annotation.Benchmark;
 import ch.obermuhlner.java.microbenchmark.annotation.BenchmarkArgument;
 import ch.obermuhlner.java.microbenchmark.annotation.BenchmarkSuite;
+import ch.obermuhlner.java.microbenchmark.annotation.Level;
+import ch.obermuhlner.java.microbenchmark.annotation.Setup;
 import ch.obermuhlner.java.microbenchmark.runner.BenchmarkClassRunner;
+import ch.obermuhlner.java.microbenchmark.store.ArgumentCache;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class BenchmarkClassRunnerExamples {
 
@@ -51,8 +57,50 @@ public class BenchmarkClassRunnerExamples {
         }
     }
 
+    @BenchmarkSuite(allocatedSeconds = 0.1)
+    public static class ExampleSortBenchmark {
+        private int[] values;
+        private int[] sortedValues;
+
+        @BenchmarkArgument
+        public int[] sizes = { 10, 100, 1000, 10000 };
+
+        @Setup(Level.Iteration)
+        public void createValues(int size) {
+            values = new Random(size).ints(size).toArray();
+        }
+
+        @Setup(Level.Invocation)
+        public void copyValues() {
+            sortedValues = values.clone();
+        }
+
+        @Benchmark
+        public int[] sort(int size) {
+            Arrays.sort(sortedValues);
+            return sortedValues;
+        }
+    }
+
+    @BenchmarkSuite(allocatedSeconds = 0.1, argumentCacheDirectory = "example-argument-cache")
+    public static class ExampleCachedArgumentBenchmark {
+        @BenchmarkArgument
+        public List<int[]> sortedValues(ArgumentCache argumentCache) {
+            return Stream.of(1000, 100_000, 10_000_000)
+                    .map(argumentCache.intArrays("sortedValues", 1, (size, random) -> random.ints(size).sorted().toArray()))
+                    .collect(Collectors.toList());
+        }
+
+        @Benchmark
+        public int binarySearch(int[] values) {
+            return Arrays.binarySearch(values, 12345);
+        }
+    }
+
     public static void main(String[] args) {
         BenchmarkClassRunner.runClass(ExampleBenchmark.class);
         //BenchmarkClassRunner.runClass(ExampleBenchmark2.class);
+        //BenchmarkClassRunner.runClass(ExampleSortBenchmark.class);
+        //BenchmarkClassRunner.runClass(ExampleCachedArgumentBenchmark.class);
     }
 }
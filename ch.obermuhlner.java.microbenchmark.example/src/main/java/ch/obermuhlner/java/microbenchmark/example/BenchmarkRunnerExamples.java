@@ -1,12 +1,21 @@
 package ch.obermuhlner.java.microbenchmark.example;
 
 import ch.obermuhlner.java.microbenchmark.runner.BenchmarkBuilder;
+import ch.obermuhlner.java.microbenchmark.runner.CacheEviction;
+import ch.obermuhlner.java.microbenchmark.runner.MeasurementOrder;
 import ch.obermuhlner.java.microbenchmark.runner.ResultCalculators;
 import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+import ch.obermuhlner.java.microbenchmark.runner.WorkingSetLayout;
+import ch.obermuhlner.java.microbenchmark.runner.WorkingSets;
 import ch.obermuhlner.math.big.BigDecimalMath;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.function.Function;
 
 import static java.math.BigDecimal.*;
 
@@ -24,6 +33,15 @@ public class BenchmarkRunnerExamples {
 //        exampleBenchmarkSleep2();
 //        exampleBenchmarkBigDecimalDivide();
         exampleBenchmarkSleep2Dimensions();
+//        exampleBenchmarkSleep3Dimensions();
+//        exampleBenchmarkSortComplexity();
+//        exampleBenchmarkAdaptiveArguments();
+//        exampleBenchmarkTotalMeasureSeconds();
+//        exampleBenchmarkInterleaved();
+//        exampleBenchmarkColdCache();
+//        exampleBenchmarkWorkingSets();
+//        exampleBenchmarkLazyArguments();
+//        exampleBenchmarkRegistrationOrder();
     }
 
     public static void exampleSimpleMeasure1() {
@@ -110,6 +128,20 @@ public class BenchmarkRunnerExamples {
                 .run();
     }
 
+    public static void exampleBenchmarkRegistrationOrder() {
+        BigDecimal v1 = valueOf(1);
+        BigDecimal v7 = valueOf(7);
+        Function<MathContext, BigDecimal> divide = mc -> v1.divide(v7, mc);
+        new BenchmarkBuilder()
+                .csvReport("example_BigDecimal_divide_registration_order.csv")
+                .forLoop(1, 100, i -> new MathContext(i))
+                .benchmarkFunction("divide1", divide)
+                .benchmarkFunction("divide2", divide)
+                .benchmarkFunction("divide3", divide)
+                .benchmarkFunction("divide4", divide)
+                .run();
+    }
+
     public static void exampleBenchmarkSleep2Dimensions() {
         new BenchmarkBuilder()
                 .csvReport("example_sleep_2dim_0_to_50_0_to_50.csv")
@@ -126,6 +158,118 @@ public class BenchmarkRunnerExamples {
                 .run();
     }
 
+    public static void exampleBenchmarkSleep3Dimensions() {
+        new BenchmarkBuilder()
+                .csvReport("example_sleep_3dim_0_to_10_0_to_10_1_to_2.csv")
+                .allocatedMeasureSeconds(0.1)
+                .timeUnit(TimeUnit.MilliSeconds)
+                .forLoop(0, 10)
+                .forLoop(0, 10)
+                .forArguments(1, 2)
+                .axisNames("millis1", "millis2", "factor")
+                .benchmark("sleep", args -> {
+                    try {
+                        Thread.sleep((args.getInt(0) + args.getInt(1)) * args.getInt(2));
+                    } catch (InterruptedException e) {
+                    }
+                })
+                .run();
+    }
+
+    public static void exampleBenchmarkSortComplexity() {
+        new BenchmarkBuilder()
+                .complexityReport()
+                .forLoop(16, n -> n <= 1_000_000, n -> n * 2)
+                .benchmarkFunction("sort", n -> {
+                    int[] values = new Random(n).ints(n).toArray();
+                    Arrays.sort(values);
+                    return values;
+                })
+                .run();
+    }
+
+    public static void exampleBenchmarkAdaptiveArguments() {
+        new BenchmarkBuilder()
+                .csvReport("example_adaptive_list_0_to_10000.csv")
+                .adaptiveArgumentMaxCount(40)
+                .forAdaptiveLoop(0, 10001)
+                .benchmarkFunction("list", n -> {
+                    return new ArrayList<>(Collections.nCopies(n, "x"));
+                })
+                .run();
+    }
+
+    public static void exampleBenchmarkTotalMeasureSeconds() {
+        new BenchmarkBuilder()
+                .csvReport("example_total_measure_seconds_list_array.csv")
+                .totalMeasureSeconds(30)
+                .targetPrecision(0.02)
+                .forLoop(0, 1000, 100)
+                .benchmarkFunction("list", n -> {
+                    return new ArrayList<>(Collections.nCopies(n, "x"));
+                })
+                .benchmarkFunction("array", n -> {
+                    return new String[n];
+                })
+                .run();
+    }
+
+    public static void exampleBenchmarkInterleaved() {
+        new BenchmarkBuilder()
+                .csvReport("example_interleaved_list_array.csv")
+                .measurementOrder(MeasurementOrder.Interleaved)
+                .forArguments(10, 100, 1000)
+                .benchmarkFunction("list", n -> {
+                    return new ArrayList<>(Collections.nCopies(n, "x"));
+                })
+                .benchmarkFunction("array", n -> {
+                    return new String[n];
+                })
+                .run();
+    }
+
+    public static void exampleBenchmarkColdCache() {
+        new BenchmarkBuilder()
+                .csvReport("example_cold_cache_sum.csv")
+                .cacheEviction(CacheEviction.Invocation)
+                .argumentCopies(4)
+                .forLoop(1024, n -> n <= 4 * 1024 * 1024, n -> n * 4, n -> new int[n], String::valueOf)
+                .benchmarkFunction("sum", values -> {
+                    long sum = 0;
+                    for (int value : values) {
+                        sum += value;
+                    }
+                    return sum;
+                })
+                .run();
+    }
+
+    public static void exampleBenchmarkWorkingSets() {
+        new BenchmarkBuilder()
+                .csvReport("example_working_sets_chase.csv")
+                .forArguments(WorkingSets.arrays(WorkingSetLayout.RandomChase))
+                .benchmarkFunction("chase", workingSet -> workingSet.chase(1000))
+                .run();
+    }
+
+    public static void exampleBenchmarkLazyArguments() {
+        new BenchmarkBuilder()
+                .csvReport("example_lazy_arguments_sort.csv")
+                .forLazyLoop(1_000_000, n -> n <= 64_000_000, n -> n * 4, (n, recycler) -> {
+                    int[] values = recycler.intArray(n);
+                    Random random = new Random(1);
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = random.nextInt();
+                    }
+                    return values;
+                })
+                .benchmark("sort", values -> {
+                    int[] copy = Arrays.copyOf(values, values.length);
+                    Arrays.sort(copy);
+                })
+                .run();
+    }
+
     public static void experimentalBenchmarks() {
 //        new BenchmarkBuilder()
 //                .csvReport("const.csv")
@@ -0,0 +1,397 @@
+package ch.obermuhlner.java.microbenchmark.processor;
+
+import ch.obermuhlner.java.microbenchmark.annotation.Benchmark;
+import ch.obermuhlner.java.microbenchmark.annotation.BenchmarkArgument;
+import ch.obermuhlner.java.microbenchmark.annotation.BenchmarkSuite;
+import ch.obermuhlner.java.microbenchmark.annotation.Level;
+import ch.obermuhlner.java.microbenchmark.annotation.Setup;
+import ch.obermuhlner.java.microbenchmark.annotation.TearDown;
+import ch.obermuhlner.java.microbenchmark.store.ArgumentCache;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@code BenchmarkSuiteRunner} for every benchmark suite class.
+ *
+ * The generated runner creates the suite instance and the arguments directly
+ * and calls the benchmark methods without reflection,
+ * using the same {@code BenchmarkBuilder} setup as {@code BenchmarkClassRunner.runClass()}.
+ * All generated runners are listed in {@code META-INF/services} so that {@code BenchmarkSuiteLauncher} can find them.
+ */
+public class BenchmarkSuiteProcessor extends AbstractProcessor {
+    private static final String SUITE_RUNNER_INTERFACE = "ch.obermuhlner.java.microbenchmark.runner.BenchmarkSuiteRunner";
+    private static final String RUNNER_SUFFIX = "_BenchmarkRunner";
+
+    private final Set<String> generatedRunners = new TreeSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(
+                BenchmarkSuite.class.getName(),
+                Benchmark.class.getName(),
+                BenchmarkArgument.class.getName(),
+                Setup.class.getName(),
+                TearDown.class.getName()));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceIndex();
+            return true;
+        }
+
+        Set<TypeElement> suites = new LinkedHashSet<>();
+        suites.addAll(ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(BenchmarkSuite.class)));
+        for (ExecutableElement method : ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(Benchmark.class))) {
+            suites.add((TypeElement) method.getEnclosingElement());
+        }
+
+        for (TypeElement suite : suites) {
+            try {
+                generateRunner(suite);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write benchmark runner: " + e.getMessage(), suite);
+            }
+        }
+
+        // the benchmark annotations are only meaningful to this processor
+        return true;
+    }
+
+    private void generateRunner(TypeElement suite) throws IOException {
+        if (suite.getModifiers().contains(Modifier.ABSTRACT) && suite.getAnnotation(BenchmarkSuite.class) == null) {
+            // base class of a benchmark suite
+            return;
+        }
+        if (!isAccessible(suite)) {
+            error("Benchmark suite must be a public top level or public static nested class", suite);
+            return;
+        }
+        if (!hasPublicDefaultConstructor(suite)) {
+            error("Benchmark suite must have a public constructor without parameters", suite);
+            return;
+        }
+
+        String suiteName = suite.getSimpleName().toString();
+        double allocatedSeconds = 1.0;
+        String argumentCacheDirectory = ArgumentCache.DEFAULT_DIRECTORY;
+        BenchmarkSuite suiteAnnotation = suite.getAnnotation(BenchmarkSuite.class);
+        if (suiteAnnotation != null) {
+            if (suiteAnnotation.value() != null && !suiteAnnotation.value().equals("")) {
+                suiteName = suiteAnnotation.value();
+            }
+            allocatedSeconds = suiteAnnotation.allocatedSeconds();
+            argumentCacheDirectory = suiteAnnotation.argumentCacheDirectory();
+        }
+
+        Map<Integer, String> indexToArgumentMap = new TreeMap<>();
+        boolean usesArgumentCache = false;
+        for (VariableElement field : ElementFilter.fieldsIn(processingEnv.getElementUtils().getAllMembers(suite))) {
+            BenchmarkArgument annotation = field.getAnnotation(BenchmarkArgument.class);
+            if (annotation != null && isPublic(field) && isArgumentType(field.asType())) {
+                indexToArgumentMap.put(annotation.value(), memberAccess(suite, field) + field.getSimpleName());
+            }
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(suite))) {
+            BenchmarkArgument annotation = method.getAnnotation(BenchmarkArgument.class);
+            if (annotation != null && isPublic(method) && method.getParameters().isEmpty() && isArgumentType(method.getReturnType())) {
+                indexToArgumentMap.put(annotation.value(), memberAccess(suite, method) + method.getSimpleName() + "()");
+            }
+            if (annotation != null && isPublic(method) && hasArgumentCacheParameter(method) && isArgumentType(method.getReturnType())) {
+                indexToArgumentMap.put(annotation.value(), memberAccess(suite, method) + method.getSimpleName() + "(argumentCache)");
+                usesArgumentCache = true;
+            }
+        }
+
+        int argumentCount = indexToArgumentMap.size();
+        if (argumentCount != 1 && argumentCount != 2) {
+            error("Benchmark suite must have 1 or 2 arguments", suite);
+            return;
+        }
+
+        List<ExecutableElement> benchmarkMethods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(suite))) {
+            if (method.getAnnotation(Benchmark.class) != null && isPublic(method)) {
+                if (method.getParameters().size() != argumentCount) {
+                    error("Benchmark method must have " + argumentCount + " parameters", method);
+                    return;
+                }
+                benchmarkMethods.add(method);
+            }
+        }
+
+        List<String> hooks = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(suite))) {
+            Setup setupAnnotation = method.getAnnotation(Setup.class);
+            TearDown tearDownAnnotation = method.getAnnotation(TearDown.class);
+            if ((setupAnnotation != null || tearDownAnnotation != null) && isPublic(method)) {
+                Level level = setupAnnotation != null ? setupAnnotation.value() : tearDownAnnotation.value();
+                int parameterCount = method.getParameters().size();
+                if (parameterCount != 0 && (level == Level.Trial || parameterCount != argumentCount)) {
+                    error(level + " setup and tear down methods must have " + (level == Level.Trial ? "0" : "0 or " + argumentCount) + " parameters", method);
+                    return;
+                }
+                if (setupAnnotation != null) {
+                    hooks.add(hookStatement(suite, method, "setup", setupAnnotation.value()));
+                }
+                if (tearDownAnnotation != null) {
+                    hooks.add(hookStatement(suite, method, "tearDown", tearDownAnnotation.value()));
+                }
+            }
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(suite).getQualifiedName().toString();
+        String runnerSimpleName = flatName(suite) + RUNNER_SUFFIX;
+        String runnerName = packageName.isEmpty() ? runnerSimpleName : packageName + "." + runnerSimpleName;
+
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(runnerName, suite);
+        try (PrintWriter out = new PrintWriter(sourceFile.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import ch.obermuhlner.java.microbenchmark.annotation.Level;");
+            out.println("import ch.obermuhlner.java.microbenchmark.runner.BenchmarkBuilder;");
+            out.println("import ch.obermuhlner.java.microbenchmark.runner.BenchmarkClassRunner;");
+            if (usesArgumentCache) {
+                out.println("import ch.obermuhlner.java.microbenchmark.store.ArgumentCache;");
+            }
+            out.println();
+            out.println("import java.util.List;");
+            out.println();
+            out.println("// generated by " + getClass().getName());
+            out.println("public final class " + runnerSimpleName + " implements " + SUITE_RUNNER_INTERFACE + " {");
+            out.println("    @Override");
+            out.println("    public String getName() {");
+            out.println("        return " + stringLiteral(suiteName) + ";");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    @SuppressWarnings(\"unchecked\")");
+            out.println("    public void run() {");
+            out.println("        " + suite.getQualifiedName() + " instance = new " + suite.getQualifiedName() + "();");
+            out.println();
+            out.println("        BenchmarkBuilder benchmark = new BenchmarkBuilder();");
+            out.println("        benchmark.allocatedMeasureSeconds(" + allocatedSeconds + ");");
+            out.println("        benchmark.csvReport(" + stringLiteral(suiteName + ".csv") + ");");
+            for (String hook : hooks) {
+                out.println(hook);
+            }
+            out.println();
+
+            if (usesArgumentCache) {
+                out.println("        ArgumentCache argumentCache = new ArgumentCache(" + stringLiteral(argumentCacheDirectory) + ");");
+            }
+            int argumentIndex = 1;
+            for (String argumentExpression : indexToArgumentMap.values()) {
+                out.println("        List<Object> arguments" + argumentIndex + " = BenchmarkClassRunner.toArgumentList(" + argumentExpression + ");");
+                argumentIndex++;
+            }
+            out.println();
+
+            if (argumentCount == 1) {
+                out.println("        benchmark.forArguments(arguments1)");
+            } else {
+                out.println("        benchmark.forArguments(arguments1).forArguments(arguments2)");
+            }
+            for (ExecutableElement method : benchmarkMethods) {
+                writeBenchmark(out, suite, method);
+            }
+            out.println("                .run();");
+            out.println("    }");
+            out.println("}");
+        }
+
+        generatedRunners.add(runnerName);
+    }
+
+    private void writeBenchmark(PrintWriter out, TypeElement suite, ExecutableElement method) {
+        List<String> parameters = new ArrayList<>();
+        List<String> castArguments = new ArrayList<>();
+        for (int i = 0; i < method.getParameters().size(); i++) {
+            String parameter = "argument" + (i + 1);
+            parameters.add("Object " + parameter);
+            castArguments.add("(" + castTypeName(method.getParameters().get(i).asType()) + ") " + parameter);
+        }
+
+        String call = memberAccess(suite, method) + method.getSimpleName() + "(" + String.join(", ", castArguments) + ")";
+        boolean hasResult = method.getReturnType().getKind() != TypeKind.VOID;
+
+        out.print("                ." + (hasResult ? "benchmarkFunction" : "benchmark") + "(" + stringLiteral(method.getSimpleName().toString()) + ", (" + String.join(", ", parameters) + ") -> ");
+        if (method.getThrownTypes().isEmpty()) {
+            out.println(call + ")");
+        } else {
+            out.println("{");
+            out.println("                    try {");
+            out.println("                        " + (hasResult ? "return " : "") + call + ";");
+            out.println("                    } catch (RuntimeException | Error e) {");
+            out.println("                        throw e;");
+            out.println("                    } catch (Throwable e) {");
+            out.println("                        throw new RuntimeException(e);");
+            out.println("                    }");
+            out.println("                })");
+        }
+    }
+
+    private String hookStatement(TypeElement suite, ExecutableElement method, String hookMethodName, Level level) {
+        List<String> castArguments = new ArrayList<>();
+        for (int i = 0; i < method.getParameters().size(); i++) {
+            castArguments.add("(" + castTypeName(method.getParameters().get(i).asType()) + ") hookArguments.get(" + i + ")");
+        }
+
+        String call = memberAccess(suite, method) + method.getSimpleName() + "(" + String.join(", ", castArguments) + ");";
+        String statement = "        benchmark." + hookMethodName + "(Level." + level.name() + ", hookArguments -> ";
+        if (method.getThrownTypes().isEmpty()) {
+            return statement + "{ " + call + " });";
+        }
+        return statement + "{\n"
+                + "            try {\n"
+                + "                " + call + "\n"
+                + "            } catch (RuntimeException | Error e) {\n"
+                + "                throw e;\n"
+                + "            } catch (Throwable e) {\n"
+                + "                throw new RuntimeException(e);\n"
+                + "            }\n"
+                + "        });";
+    }
+
+    private void writeServiceIndex() {
+        if (generatedRunners.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject indexFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + SUITE_RUNNER_INTERFACE);
+            try (Writer writer = indexFile.openWriter()) {
+                for (String runnerName : generatedRunners) {
+                    writer.write(runnerName);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write benchmark suite index: " + e.getMessage());
+        }
+    }
+
+    private boolean hasArgumentCacheParameter(ExecutableElement method) {
+        if (method.getParameters().size() != 1) {
+            return false;
+        }
+        TypeMirror type = method.getParameters().get(0).asType();
+        return type.getKind() == TypeKind.DECLARED && ArgumentCache.class.getName().equals(processingEnv.getTypeUtils().erasure(type).toString());
+    }
+
+    private boolean isArgumentType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return true;
+        }
+        return isSubtypeOf(type, "java.util.List") || isSubtypeOf(type, "java.util.stream.Stream");
+    }
+
+    private boolean isSubtypeOf(TypeMirror type, String className) {
+        TypeElement classElement = processingEnv.getElementUtils().getTypeElement(className);
+        if (classElement == null) {
+            return false;
+        }
+        TypeMirror classType = processingEnv.getTypeUtils().erasure(classElement.asType());
+        return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type), classType);
+    }
+
+    private String castTypeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private boolean hasPublicDefaultConstructor(TypeElement suite) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(suite.getEnclosedElements())) {
+            if (isPublic(constructor) && constructor.getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        if (!isPublic(type) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        if (type.getNestingKind() == NestingKind.TOP_LEVEL) {
+            return true;
+        }
+        return type.getNestingKind() == NestingKind.MEMBER
+                && type.getModifiers().contains(Modifier.STATIC)
+                && isAccessible((TypeElement) type.getEnclosingElement());
+    }
+
+    private static boolean isPublic(Element element) {
+        return element.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    private static String memberAccess(TypeElement suite, Element member) {
+        if (member.getModifiers().contains(Modifier.STATIC)) {
+            return suite.getQualifiedName() + ".";
+        }
+        return "instance.";
+    }
+
+    private static String flatName(TypeElement type) {
+        Element enclosing = type.getEnclosingElement();
+        if (enclosing.getKind() == ElementKind.PACKAGE || !(enclosing instanceof TypeElement)) {
+            return type.getSimpleName().toString();
+        }
+        return flatName((TypeElement) enclosing) + "_" + type.getSimpleName();
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                default:
+                    result.append(c);
+            }
+        }
+        result.append("\"");
+        return result.toString();
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -1,5 +1,7 @@
 package ch.obermuhlner.java.microbenchmark.annotation;
 
+import ch.obermuhlner.java.microbenchmark.store.ArgumentCache;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -10,4 +12,9 @@ import java.lang.annotation.Target;
 public @interface BenchmarkSuite {
     String value() default "";
     double allocatedSeconds() default 1.0;
+
+    /**
+     * The directory of the {@link ArgumentCache} passed to {@code @BenchmarkArgument} methods with an {@link ArgumentCache} parameter.
+     */
+    String argumentCacheDirectory() default ArgumentCache.DEFAULT_DIRECTORY;
 }
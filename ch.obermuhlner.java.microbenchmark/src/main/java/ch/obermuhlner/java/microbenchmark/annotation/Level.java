@@ -0,0 +1,21 @@
+package ch.obermuhlner.java.microbenchmark.annotation;
+
+/**
+ * The scope of a setup or tear down hook.
+ */
+public enum Level {
+    /**
+     * Once around all measurements of a benchmark run (in every forked JVM).
+     */
+    Trial,
+
+    /**
+     * Around every batch of invocations, including the warmup batches.
+     */
+    Iteration,
+
+    /**
+     * Around every single invocation, the invocations are timed individually to exclude the hooks.
+     */
+    Invocation
+}
@@ -0,0 +1,12 @@
+package ch.obermuhlner.java.microbenchmark.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Setup {
+    Level value() default Level.Trial;
+}
@@ -0,0 +1,241 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes all raw samples into a compact binary file that can be read with {@link BinaryResultReader}.
+ *
+ * <pre>
+ * header:  int magic, int version
+ * blocks:  int type, int name, int argument, int count, data (8 byte aligned)
+ *          SAMPLES:   double result, double[count] samples
+ *          HISTOGRAM: long[count] bucket values, long[count] bucket counts
+ *          METRIC:    int metric, int unused, double value (count is 1)
+ *          AXIS_VALUES: int[count] axis values, padded to 8 bytes (name is empty)
+ * footer:  int END, int dimensions, int timeUnit, int nameCount, int[nameCount] names,
+ *          int argumentCount, int[argumentCount] arguments, int axisCount, int[axisCount] axes,
+ *          int stringCount, (int length, byte[length] utf8)[stringCount],
+ *          long footerOffset, int magic
+ * </pre>
+ *
+ * All strings are stored once in the string table, blocks refer to them by index.
+ * All values are little endian.
+ */
+public class BinaryResultPrinter implements ResultPrinter {
+
+    static final int MAGIC = 0x4a4d4252; // "JMBR"
+    static final int VERSION = 1;
+
+    static final int BLOCK_SAMPLES = 1;
+    static final int BLOCK_HISTOGRAM = 2;
+    static final int BLOCK_METRIC = 3;
+    static final int BLOCK_AXIS_VALUES = 4;
+    static final int BLOCK_END = 0;
+
+    private final FileChannel channel;
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+
+    private TimeUnit timeUnit = TimeUnit.NanoSeconds;
+    private int dimensions;
+    private List<String> names = new ArrayList<>();
+    private List<String> arguments = new ArrayList<>();
+    private List<String> axes = new ArrayList<>();
+    private boolean closed;
+
+    public BinaryResultPrinter(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = allocate(8);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        write(header);
+    }
+
+    @Override
+    public void setTimeUnit(TimeUnit timeUnit) {
+        this.timeUnit = timeUnit;
+    }
+
+    @Override
+    public void printDimensions(int count) {
+        dimensions = count;
+    }
+
+    @Override
+    public void printNames(List<String> names) {
+        this.names = names;
+    }
+
+    @Override
+    public void printArguments(List<String> arguments) {
+        this.arguments = arguments;
+    }
+
+    @Override
+    public void printAxes(List<String> axes) {
+        this.axes = axes;
+    }
+
+    @Override
+    public void printAxisValues(String argument, List<String> axisValues) {
+        int[] axisValueIndexes = stringIndexes(axisValues);
+        ByteBuffer buffer = allocate(16 + (axisValueIndexes.length + 1) / 2 * 8);
+        putBlockHeader(buffer, BLOCK_AXIS_VALUES, "", argument, axisValueIndexes.length);
+        buffer.asIntBuffer().put(axisValueIndexes);
+        buffer.position(buffer.limit());
+        write(buffer);
+    }
+
+    @Override
+    public void printInfoValue(String name, int value) {
+    }
+
+    @Override
+    public void printInfoValue(String name, double value) {
+    }
+
+    @Override
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        double[] samples = statistics.getSamples();
+        ByteBuffer buffer = allocate(16 + 8 + samples.length * 8);
+        putBlockHeader(buffer, BLOCK_SAMPLES, name, argument, samples.length);
+        buffer.putDouble(statistics.getResult());
+        buffer.asDoubleBuffer().put(samples);
+        buffer.position(buffer.limit());
+        write(buffer);
+    }
+
+    @Override
+    public void printLatencyPercentiles(String name, String argument, LatencyHistogram histogram) {
+        long[] values = histogram.getBucketValues();
+        long[] counts = histogram.getBucketCounts();
+        ByteBuffer buffer = allocate(16 + values.length * 16);
+        putBlockHeader(buffer, BLOCK_HISTOGRAM, name, argument, values.length);
+        buffer.asLongBuffer().put(values).put(counts);
+        buffer.position(buffer.limit());
+        write(buffer);
+    }
+
+    @Override
+    public void printMetric(String name, String argument, String metric, double value) {
+        ByteBuffer buffer = allocate(16 + 16);
+        putBlockHeader(buffer, BLOCK_METRIC, name, argument, 1);
+        buffer.putInt(stringIndex(metric));
+        buffer.putInt(0);
+        buffer.putDouble(value);
+        write(buffer);
+    }
+
+    @Override
+    public void printFinished() {
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            long footerOffset = channel.position();
+
+            int timeUnitIndex = stringIndex(timeUnit.name());
+            int[] nameIndexes = stringIndexes(names);
+            int[] argumentIndexes = stringIndexes(arguments);
+            int[] axisIndexes = stringIndexes(axes);
+
+            List<byte[]> encodedStrings = new ArrayList<>();
+            int stringsSize = 0;
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                encodedStrings.add(bytes);
+                stringsSize += 4 + bytes.length;
+            }
+
+            ByteBuffer footer = allocate(4 * 7 + 4 * nameIndexes.length + 4 * argumentIndexes.length + 4 * axisIndexes.length + stringsSize + 12);
+            footer.putInt(BLOCK_END);
+            footer.putInt(dimensions);
+            footer.putInt(timeUnitIndex);
+            footer.putInt(nameIndexes.length);
+            for (int index : nameIndexes) {
+                footer.putInt(index);
+            }
+            footer.putInt(argumentIndexes.length);
+            for (int index : argumentIndexes) {
+                footer.putInt(index);
+            }
+            footer.putInt(axisIndexes.length);
+            for (int index : axisIndexes) {
+                footer.putInt(index);
+            }
+            footer.putInt(encodedStrings.size());
+            for (byte[] bytes : encodedStrings) {
+                footer.putInt(bytes.length);
+                footer.put(bytes);
+            }
+            footer.putLong(footerOffset);
+            footer.putInt(MAGIC);
+            write(footer);
+
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void putBlockHeader(ByteBuffer buffer, int type, String name, String argument, int count) {
+        buffer.putInt(type);
+        buffer.putInt(stringIndex(name));
+        buffer.putInt(stringIndex(argument));
+        buffer.putInt(count);
+    }
+
+    private int stringIndex(String string) {
+        Integer index = stringIndexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            stringIndexes.put(string, index);
+        }
+        return index;
+    }
+
+    private int[] stringIndexes(List<String> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = stringIndex(values.get(i));
+        }
+        return result;
+    }
+
+    private void write(ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
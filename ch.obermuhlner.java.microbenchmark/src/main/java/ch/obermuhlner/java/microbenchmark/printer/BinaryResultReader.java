@@ -0,0 +1,339 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the binary files written by {@link BinaryResultPrinter}.
+ *
+ * The file is memory-mapped, the samples are exposed as {@link DoubleBuffer} and {@link LongBuffer}
+ * views of the mapped file without copying.
+ *
+ * Usage as converter to CSV: {@code BinaryResultReader <binary file> <csv file>}
+ */
+public class BinaryResultReader {
+
+    private final MappedByteBuffer buffer;
+
+    private final List<String> strings = new ArrayList<>();
+    private final int dimensions;
+    private final TimeUnit timeUnit;
+    private final List<String> names = new ArrayList<>();
+    private final List<String> arguments = new ArrayList<>();
+    private final List<String> axes = new ArrayList<>();
+    private final Map<String, List<String>> axisValues = new LinkedHashMap<>();
+
+    private final List<SampleBlock> sampleBlocks = new ArrayList<>();
+    private final List<HistogramBlock> histogramBlocks = new ArrayList<>();
+    private final List<MetricBlock> metricBlocks = new ArrayList<>();
+
+    public BinaryResultReader(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.limit() < 20 || buffer.getInt(0) != BinaryResultPrinter.MAGIC || buffer.getInt(buffer.limit() - 4) != BinaryResultPrinter.MAGIC) {
+            throw new RuntimeException("Not a complete binary benchmark result file: " + fileName);
+        }
+        int version = buffer.getInt(4);
+        if (version != BinaryResultPrinter.VERSION) {
+            throw new RuntimeException("Unsupported binary benchmark result version: " + version);
+        }
+
+        int footerOffset = (int) buffer.getLong(buffer.limit() - 12);
+        buffer.position(footerOffset);
+        if (buffer.getInt() != BinaryResultPrinter.BLOCK_END) {
+            throw new RuntimeException("Corrupt binary benchmark result file: " + fileName);
+        }
+        dimensions = buffer.getInt();
+        int timeUnitIndex = buffer.getInt();
+        int[] nameIndexes = readInts();
+        int[] argumentIndexes = readInts();
+        int[] axisIndexes = readInts();
+        int stringCount = buffer.getInt();
+        for (int i = 0; i < stringCount; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        timeUnit = TimeUnit.valueOf(strings.get(timeUnitIndex));
+        for (int index : nameIndexes) {
+            names.add(strings.get(index));
+        }
+        for (int index : argumentIndexes) {
+            arguments.add(strings.get(index));
+        }
+        for (int index : axisIndexes) {
+            axes.add(strings.get(index));
+        }
+
+        int position = 8;
+        while (position < footerOffset) {
+            int type = buffer.getInt(position);
+            String name = strings.get(buffer.getInt(position + 4));
+            String argument = strings.get(buffer.getInt(position + 8));
+            int count = buffer.getInt(position + 12);
+            int dataPosition = position + 16;
+            switch (type) {
+                case BinaryResultPrinter.BLOCK_SAMPLES:
+                    sampleBlocks.add(new SampleBlock(name, argument, buffer.getDouble(dataPosition), slice(dataPosition + 8, count * 8).asDoubleBuffer()));
+                    position = dataPosition + 8 + count * 8;
+                    break;
+                case BinaryResultPrinter.BLOCK_HISTOGRAM:
+                    histogramBlocks.add(new HistogramBlock(name, argument, slice(dataPosition, count * 8).asLongBuffer(), slice(dataPosition + count * 8, count * 8).asLongBuffer()));
+                    position = dataPosition + count * 16;
+                    break;
+                case BinaryResultPrinter.BLOCK_METRIC:
+                    metricBlocks.add(new MetricBlock(name, argument, strings.get(buffer.getInt(dataPosition)), buffer.getDouble(dataPosition + 8)));
+                    position = dataPosition + 16;
+                    break;
+                case BinaryResultPrinter.BLOCK_AXIS_VALUES:
+                    List<String> values = new ArrayList<>();
+                    for (int i = 0; i < count; i++) {
+                        values.add(strings.get(buffer.getInt(dataPosition + i * 4)));
+                    }
+                    axisValues.put(argument, values);
+                    position = dataPosition + (count + 1) / 2 * 8;
+                    break;
+                default:
+                    throw new RuntimeException("Unknown block type " + type + " at " + position);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryResultReader <binary file> <csv file>");
+            System.exit(2);
+        }
+        new BinaryResultReader(args[0]).toCsv(args[1]);
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public TimeUnit getTimeUnit() {
+        return timeUnit;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    public List<String> getArguments() {
+        return Collections.unmodifiableList(arguments);
+    }
+
+    public List<String> getAxes() {
+        return Collections.unmodifiableList(axes);
+    }
+
+    /**
+     * Returns the value of every axis by argument for benchmarks in long format.
+     */
+    public Map<String, List<String>> getAxisValues() {
+        return Collections.unmodifiableMap(axisValues);
+    }
+
+    public List<SampleBlock> getSampleBlocks() {
+        return Collections.unmodifiableList(sampleBlocks);
+    }
+
+    public List<HistogramBlock> getHistogramBlocks() {
+        return Collections.unmodifiableList(histogramBlocks);
+    }
+
+    public List<MetricBlock> getMetricBlocks() {
+        return Collections.unmodifiableList(metricBlocks);
+    }
+
+    public void toCsv(String fileName) throws IOException {
+        toCsv(new PrintWriter(new BufferedWriter(new FileWriter(fileName))));
+    }
+
+    /**
+     * Writes the results in the format of {@link CsvResultPrinter} and closes the writer.
+     */
+    public void toCsv(PrintWriter out) {
+        try (CsvResultPrinter csvResultPrinter = new CsvResultPrinter(out)) {
+            print(csvResultPrinter);
+        }
+    }
+
+    /**
+     * Replays the stored results into a {@link ResultPrinter}.
+     */
+    public void print(ResultPrinter resultPrinter) {
+        resultPrinter.setTimeUnit(timeUnit);
+        if (axes.isEmpty()) {
+            resultPrinter.printDimensions(dimensions);
+        } else {
+            resultPrinter.printAxes(axes);
+        }
+        resultPrinter.printNames(names);
+        resultPrinter.printArguments(arguments);
+        for (Map.Entry<String, List<String>> entry : axisValues.entrySet()) {
+            resultPrinter.printAxisValues(entry.getKey(), entry.getValue());
+        }
+        for (SampleBlock block : sampleBlocks) {
+            resultPrinter.printBenchmark(block.getName(), block.getArgument(), block.toStatistics());
+        }
+        for (HistogramBlock block : histogramBlocks) {
+            resultPrinter.printLatencyPercentiles(block.getName(), block.getArgument(), block.toLatencyHistogram());
+        }
+        for (MetricBlock block : metricBlocks) {
+            resultPrinter.printMetric(block.getName(), block.getArgument(), block.getMetric(), block.getValue());
+        }
+        resultPrinter.printFinished();
+    }
+
+    private int[] readInts() {
+        int[] result = new int[buffer.getInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = buffer.getInt();
+        }
+        return result;
+    }
+
+    private ByteBuffer slice(int position, int length) {
+        ByteBuffer result = buffer.duplicate();
+        result.position(position);
+        result.limit(position + length);
+        return result.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static class SampleBlock {
+        private final String name;
+        private final String argument;
+        private final double result;
+        private final DoubleBuffer samples;
+
+        SampleBlock(String name, String argument, double result, DoubleBuffer samples) {
+            this.name = name;
+            this.argument = argument;
+            this.result = result;
+            this.samples = samples;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getArgument() {
+            return argument;
+        }
+
+        public double getResult() {
+            return result;
+        }
+
+        /**
+         * Returns the samples in the order they were measured as view of the mapped file.
+         */
+        public DoubleBuffer getSamples() {
+            return samples.duplicate();
+        }
+
+        public Statistics toStatistics() {
+            double[] values = new double[samples.remaining()];
+            samples.duplicate().get(values);
+            return new Statistics(values, result);
+        }
+    }
+
+    public static class HistogramBlock {
+        private final String name;
+        private final String argument;
+        private final LongBuffer bucketValues;
+        private final LongBuffer bucketCounts;
+
+        HistogramBlock(String name, String argument, LongBuffer bucketValues, LongBuffer bucketCounts) {
+            this.name = name;
+            this.argument = argument;
+            this.bucketValues = bucketValues;
+            this.bucketCounts = bucketCounts;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getArgument() {
+            return argument;
+        }
+
+        /**
+         * Returns the latency values in nanoseconds of the non-empty histogram buckets as view of the mapped file.
+         */
+        public LongBuffer getBucketValues() {
+            return bucketValues.duplicate();
+        }
+
+        /**
+         * Returns the counts of the non-empty histogram buckets as view of the mapped file.
+         */
+        public LongBuffer getBucketCounts() {
+            return bucketCounts.duplicate();
+        }
+
+        public LatencyHistogram toLatencyHistogram() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < bucketValues.limit(); i++) {
+                histogram.recordValues(bucketValues.get(i), bucketCounts.get(i));
+            }
+            return histogram;
+        }
+    }
+
+    public static class MetricBlock {
+        private final String name;
+        private final String argument;
+        private final String metric;
+        private final double value;
+
+        MetricBlock(String name, String argument, String metric, double value) {
+            this.name = name;
+            this.argument = argument;
+            this.metric = metric;
+            this.value = value;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getArgument() {
+            return argument;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import ch.obermuhlner.java.microbenchmark.runner.ComplexityFit;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fits the results of one-dimensional benchmarks with numeric arguments against complexity models
+ * and prints the best model and the inflection points of every benchmark.
+ *
+ * Benchmarks with fewer than 3 positive numeric arguments are ignored.
+ */
+public class ComplexityResultPrinter implements ResultPrinter {
+
+    private static final int MIN_POINTS = 3;
+
+    private final PrintStream out;
+    private final boolean doClose;
+    private boolean verbose = false;
+
+    private int dimensions;
+    private final Map<String, List<double[]>> points = new LinkedHashMap<>();
+    private final Map<String, ComplexityFit> fits = new LinkedHashMap<>();
+
+    public ComplexityResultPrinter() {
+        this(System.out, false);
+    }
+
+    public ComplexityResultPrinter(String fileName) throws FileNotFoundException {
+        this(new PrintStream(fileName));
+    }
+
+    public ComplexityResultPrinter(PrintStream out) {
+        this(out, true);
+    }
+
+    public ComplexityResultPrinter(PrintStream out, boolean doClose) {
+        this.out = out;
+        this.doClose = doClose;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Returns the complexity fits of all benchmarks after {@link #printFinished()}.
+     */
+    public Map<String, ComplexityFit> getFits() {
+        return Collections.unmodifiableMap(fits);
+    }
+
+    @Override
+    public void setTimeUnit(TimeUnit timeUnit) {
+    }
+
+    @Override
+    public void printDimensions(int count) {
+        dimensions = count;
+    }
+
+    @Override
+    public void printNames(List<String> names) {
+    }
+
+    @Override
+    public void printArguments(List<String> arguments) {
+    }
+
+    @Override
+    public void printInfoValue(String name, int value) {
+    }
+
+    @Override
+    public void printInfoValue(String name, double value) {
+    }
+
+    @Override
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        if (dimensions != 1) {
+            return;
+        }
+        try {
+            // ignore annotations after the input size, like the cache level of a working set
+            double n = Double.parseDouble(argument.trim().split(" ")[0]);
+            if (n > 0) {
+                points.computeIfAbsent(name, key -> new ArrayList<>()).add(new double[] { n, statistics.getResult() });
+            }
+        } catch (NumberFormatException e) {
+            // not an input size
+        }
+    }
+
+    @Override
+    public void printFinished() {
+        for (Map.Entry<String, List<double[]>> entry : points.entrySet()) {
+            List<double[]> benchmarkPoints = entry.getValue();
+            if (benchmarkPoints.size() < MIN_POINTS) {
+                continue;
+            }
+
+            double[] arguments = new double[benchmarkPoints.size()];
+            double[] results = new double[benchmarkPoints.size()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = benchmarkPoints.get(i)[0];
+                results[i] = benchmarkPoints.get(i)[1];
+            }
+            ComplexityFit fit = new ComplexityFit(arguments, results);
+            fits.put(entry.getKey(), fit);
+            printFit(entry.getKey(), fit);
+        }
+        points.clear();
+    }
+
+    private void printFit(String name, ComplexityFit fit) {
+        ComplexityFit.ModelFit bestFit = fit.getBestFit();
+        out.println(String.format("%-40s %12s %-40s R²=%.4f", name, bestFit.getModel().notation, bestFit.getFormula(), bestFit.getRSquared()));
+        if (verbose) {
+            for (ComplexityFit.ModelFit modelFit : fit.getModelFits()) {
+                if (modelFit != bestFit) {
+                    out.println(String.format("%-40s %12s %-40s R²=%.4f", "", modelFit.getModel().notation, modelFit.getFormula(), modelFit.getRSquared()));
+                }
+            }
+        }
+        for (ComplexityFit.InflectionPoint inflectionPoint : fit.getInflectionPoints()) {
+            out.println(String.format("%-40s %12s %s", "", "inflection", inflectionPoint));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (doClose) {
+            out.close();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package ch.obermuhlner.java.microbenchmark.printer;
 
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.StatisticsComparison;
 import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
 
 import java.util.ArrayList;
@@ -47,6 +50,20 @@ public class CompositeResultPrinter implements ResultPrinter {
         }
     }
 
+    @Override
+    public void printAxes(List<String> axes) {
+        for (ResultPrinter printer : printers) {
+            printer.printAxes(axes);
+        }
+    }
+
+    @Override
+    public void printAxisValues(String argument, List<String> axisValues) {
+        for (ResultPrinter printer : printers) {
+            printer.printAxisValues(argument, axisValues);
+        }
+    }
+
     @Override
     public void printInfoValue(String name, int value) {
         for (ResultPrinter printer : printers) {
@@ -62,9 +79,37 @@ public class CompositeResultPrinter implements ResultPrinter {
     }
 
     @Override
-    public void printBenchmark(String name, String argument, double elapsed, double[] allElapsed) {
+    public void printInfoValue(String name, String value) {
+        for (ResultPrinter printer : printers) {
+            printer.printInfoValue(name, value);
+        }
+    }
+
+    @Override
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        for (ResultPrinter printer : printers) {
+            printer.printBenchmark(name, argument, statistics);
+        }
+    }
+
+    @Override
+    public void printComparison(String name, String baselineName, String argument, StatisticsComparison comparison) {
+        for (ResultPrinter printer : printers) {
+            printer.printComparison(name, baselineName, argument, comparison);
+        }
+    }
+
+    @Override
+    public void printLatencyPercentiles(String name, String argument, LatencyHistogram histogram) {
+        for (ResultPrinter printer : printers) {
+            printer.printLatencyPercentiles(name, argument, histogram);
+        }
+    }
+
+    @Override
+    public void printMetric(String name, String argument, String metric, double value) {
         for (ResultPrinter printer : printers) {
-            printer.printBenchmark(name, argument, elapsed, allElapsed);
+            printer.printMetric(name, argument, metric, value);
         }
     }
 
@@ -0,0 +1,146 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts the long format written by {@link StreamingCsvResultPrinter} into the wide {@code csv2chart} format of {@link CsvResultPrinter}.
+ *
+ * Usage: {@code CsvPivot <long csv file> <wide csv file>}
+ */
+public class CsvPivot {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CsvPivot <long csv file> <wide csv file>");
+            System.exit(2);
+        }
+        pivot(args[0], args[1]);
+    }
+
+    public static void pivot(String longFileName, String wideFileName) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(longFileName), StandardCharsets.UTF_8);
+             PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(wideFileName), StandardCharsets.UTF_8))) {
+            pivot(in, out);
+        }
+    }
+
+    public static void pivot(BufferedReader in, PrintWriter out) throws IOException {
+        List<String> comments = new ArrayList<>();
+        String argumentName = "argument";
+        Set<String> names = new LinkedHashSet<>();
+        Set<String> arguments = new LinkedHashSet<>();
+        Set<String> metrics = new LinkedHashSet<>();
+        Map<List<String>, String> values = new HashMap<>();
+
+        boolean header = true;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("#")) {
+                comments.add(line);
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            if (header) {
+                header = false;
+                if (fields.size() > 1) {
+                    argumentName = fields.get(1);
+                }
+                continue;
+            }
+            if (fields.size() < 4) {
+                // incomplete last line after a crash
+                continue;
+            }
+            String name = fields.get(0);
+            String argument = fields.get(1);
+            String metric = fields.get(2);
+            names.add(name);
+            arguments.add(argument);
+            if (!metric.equals(StreamingCsvResultPrinter.RESULT_METRIC)) {
+                metrics.add(metric);
+            }
+            values.put(Arrays.asList(name, argument, metric), fields.get(3));
+        }
+
+        for (String comment : comments) {
+            out.println(comment);
+        }
+
+        out.print(String.format("%-40s", argumentName));
+        for (String name : names) {
+            out.print(", ");
+            out.print(String.format("%16s", name));
+        }
+        for (String metric : metrics) {
+            for (String name : names) {
+                out.print(", ");
+                out.print(String.format("%16s", name + " " + metric));
+            }
+        }
+        out.println();
+
+        for (String argument : arguments) {
+            out.print(String.format("%-40s", argument));
+            for (String name : names) {
+                printValue(out, values.get(Arrays.asList(name, argument, StreamingCsvResultPrinter.RESULT_METRIC)));
+            }
+            for (String metric : metrics) {
+                for (String name : names) {
+                    printValue(out, values.get(Arrays.asList(name, argument, metric)));
+                }
+            }
+            out.println();
+        }
+    }
+
+    private static void printValue(PrintWriter out, String value) {
+        out.print(", ");
+        if (value != null) {
+            out.print(String.format("%16.1f", Double.parseDouble(value)));
+        }
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> result = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                result.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        result.add(field.toString().trim());
+        return result;
+    }
+}
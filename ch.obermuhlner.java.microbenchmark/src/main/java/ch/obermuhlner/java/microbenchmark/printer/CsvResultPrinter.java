@@ -1,12 +1,16 @@
 package ch.obermuhlner.java.microbenchmark.printer;
 
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
 import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
 
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class CsvResultPrinter implements ResultPrinter {
     private final PrintWriter out;
@@ -17,7 +21,13 @@ public class CsvResultPrinter implements ResultPrinter {
     private List<String> arguments;
 
     private TimeUnit timeUnit;
+    private int dimensions;
+    private boolean longFormat;
     private Map<List<String>, Double> resultMap = new HashMap<>();
+    private Map<List<String>, double[]> latencyMap = new HashMap<>();
+    private Set<String> metrics = new LinkedHashSet<>();
+    private Map<List<String>, Double> metricMap = new HashMap<>();
+    private Map<String, String> axisValuesCsv = new HashMap<>();
 
     public CsvResultPrinter(PrintWriter out) {
         this.out = out;
@@ -34,6 +44,7 @@ public class CsvResultPrinter implements ResultPrinter {
 
     @Override
     public void printDimensions(int count) {
+        dimensions = count;
         switch (count) {
             case 1:
                 if (timeUnit != null) {
@@ -58,6 +69,22 @@ public class CsvResultPrinter implements ResultPrinter {
         this.arguments = arguments;
     }
 
+    @Override
+    public void printAxes(List<String> axes) {
+        longFormat = true;
+        out.print("name");
+        for (String axis : axes) {
+            out.print(", ");
+            out.print(StreamingCsvResultPrinter.toCsv(axis));
+        }
+        out.println(", metric, value");
+    }
+
+    @Override
+    public void printAxisValues(String argument, List<String> axisValues) {
+        axisValuesCsv.put(argument, StreamingCsvResultPrinter.toAxisValuesCsv(axisValues));
+    }
+
     @Override
     public void printInfoValue(String name, int value) {
     }
@@ -67,17 +94,74 @@ public class CsvResultPrinter implements ResultPrinter {
     }
 
     @Override
-    public void printBenchmark(String name, String argument, double elapsed, double[] allElapsed) {
-        resultMap.put(Arrays.asList(name, argument), elapsed);
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        if (longFormat) {
+            printLongRow(name, argument, StreamingCsvResultPrinter.RESULT_METRIC, statistics.getResult());
+            return;
+        }
+        resultMap.put(Arrays.asList(name, argument), statistics.getResult());
+    }
+
+    @Override
+    public void printLatencyPercentiles(String name, String argument, LatencyHistogram histogram) {
+        if (longFormat) {
+            for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+                printLongRow(name, argument, "p" + SimpleResultPrinter.formatPercentile(percentile), timeUnit.nanosecondsToTimeUnit(histogram.getValueAtPercentile(percentile)));
+            }
+            printLongRow(name, argument, "max", timeUnit.nanosecondsToTimeUnit(histogram.getMaxValue()));
+            return;
+        }
+        double[] latencies = new double[LatencyHistogram.REPORTED_PERCENTILES.length + 1];
+        for (int i = 0; i < LatencyHistogram.REPORTED_PERCENTILES.length; i++) {
+            latencies[i] = timeUnit.nanosecondsToTimeUnit(histogram.getValueAtPercentile(LatencyHistogram.REPORTED_PERCENTILES[i]));
+        }
+        latencies[latencies.length - 1] = timeUnit.nanosecondsToTimeUnit(histogram.getMaxValue());
+        latencyMap.put(Arrays.asList(name, argument), latencies);
+    }
+
+    @Override
+    public void printMetric(String name, String argument, String metric, double value) {
+        if (longFormat) {
+            printLongRow(name, argument, metric, value);
+            return;
+        }
+        metrics.add(metric);
+        metricMap.put(Arrays.asList(name, argument, metric), value);
     }
 
     @Override
     public void printFinished() {
+        if (longFormat) {
+            out.flush();
+            return;
+        }
+
+        boolean printLatencies = dimensions == 1 && !latencyMap.isEmpty();
+        boolean printMetrics = dimensions == 1 && !metricMap.isEmpty();
+
         out.print(String.format("%-40s", argumentName));
         for (String name : names) {
             out.print(", ");
             out.print(String.format("%16s", name));
         }
+        if (printLatencies) {
+            for (String name : names) {
+                for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+                    out.print(", ");
+                    out.print(String.format("%16s", name + " p" + SimpleResultPrinter.formatPercentile(percentile)));
+                }
+                out.print(", ");
+                out.print(String.format("%16s", name + " max"));
+            }
+        }
+        if (printMetrics) {
+            for (String metric : metrics) {
+                for (String name : names) {
+                    out.print(", ");
+                    out.print(String.format("%16s", name + " " + metric));
+                }
+            }
+        }
         out.println();
 
         for (String argument : arguments) {
@@ -89,6 +173,28 @@ public class CsvResultPrinter implements ResultPrinter {
                     out.print(String.format("%16.1f", seconds));
                 }
             }
+            if (printLatencies) {
+                for (String name : names) {
+                    double[] latencies = latencyMap.get(Arrays.asList(name, argument));
+                    for (int i = 0; i < LatencyHistogram.REPORTED_PERCENTILES.length + 1; i++) {
+                        out.print(", ");
+                        if (latencies != null) {
+                            out.print(String.format("%16.1f", latencies[i]));
+                        }
+                    }
+                }
+            }
+            if (printMetrics) {
+                for (String metric : metrics) {
+                    for (String name : names) {
+                        out.print(", ");
+                        Double value = metricMap.get(Arrays.asList(name, argument, metric));
+                        if (value != null) {
+                            out.print(String.format("%16.1f", value));
+                        }
+                    }
+                }
+            }
             out.println();
         }
     }
@@ -97,4 +203,12 @@ public class CsvResultPrinter implements ResultPrinter {
     public void close() {
         out.close();
     }
+
+    private void printLongRow(String name, String argument, String metric, double value) {
+        String argumentCsv = axisValuesCsv.get(argument);
+        if (argumentCsv == null) {
+            argumentCsv = StreamingCsvResultPrinter.toCsv(argument);
+        }
+        out.println(StreamingCsvResultPrinter.toCsv(name) + ", " + argumentCsv + ", " + StreamingCsvResultPrinter.toCsv(metric) + ", " + value);
+    }
 }
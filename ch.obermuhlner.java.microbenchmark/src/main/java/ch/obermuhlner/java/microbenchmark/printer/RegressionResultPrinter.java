@@ -0,0 +1,104 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+import ch.obermuhlner.java.microbenchmark.store.RegressionReport;
+import ch.obermuhlner.java.microbenchmark.store.ResultStore;
+import ch.obermuhlner.java.microbenchmark.store.StoredResult;
+import ch.obermuhlner.java.microbenchmark.store.StoredRun;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Stores the results in a {@link ResultStore} and compares them with the previous run of the same suite.
+ */
+public class RegressionResultPrinter implements ResultPrinter {
+
+    private final ResultStore store;
+    private final String suite;
+    private final double threshold;
+    private final PrintStream out;
+
+    private StoredRun run;
+    private RegressionReport report;
+
+    public RegressionResultPrinter(ResultStore store, String suite) {
+        this(store, suite, RegressionReport.DEFAULT_THRESHOLD);
+    }
+
+    public RegressionResultPrinter(ResultStore store, String suite, double threshold) {
+        this(store, suite, threshold, System.out);
+    }
+
+    public RegressionResultPrinter(ResultStore store, String suite, double threshold, PrintStream out) {
+        this.store = store;
+        this.suite = suite;
+        this.threshold = threshold;
+        this.out = out;
+        this.run = StoredRun.createCurrent(suite);
+    }
+
+    /**
+     * Returns the comparison with the previous run, {@code null} if there was no previous run.
+     */
+    public RegressionReport getReport() {
+        return report;
+    }
+
+    /**
+     * Returns the exit status for a CI build: 0 if nothing regressed, 1 otherwise.
+     */
+    public int getExitStatus() {
+        return report == null ? 0 : report.getExitStatus();
+    }
+
+    @Override
+    public void setTimeUnit(TimeUnit timeUnit) {
+        run.putEnvironment(StoredRun.ENVIRONMENT_TIME_UNIT, timeUnit.name());
+    }
+
+    @Override
+    public void printDimensions(int count) {
+    }
+
+    @Override
+    public void printNames(List<String> names) {
+    }
+
+    @Override
+    public void printArguments(List<String> arguments) {
+    }
+
+    @Override
+    public void printInfoValue(String name, int value) {
+    }
+
+    @Override
+    public void printInfoValue(String name, double value) {
+    }
+
+    @Override
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        run.addResult(new StoredResult(name, argument, statistics.getResult(), statistics.getSamples()));
+    }
+
+    @Override
+    public void printFinished() {
+        StoredRun baseline = store.loadLatest(suite);
+        store.save(run);
+
+        if (baseline == null) {
+            out.println("No baseline run for " + suite);
+        } else {
+            report = new RegressionReport(baseline, run, threshold);
+            report.print(out);
+        }
+
+        run = StoredRun.createCurrent(suite);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -1,5 +1,8 @@
 package ch.obermuhlner.java.microbenchmark.printer;
 
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.StatisticsComparison;
 import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
 
 import java.util.List;
@@ -13,10 +16,35 @@ public interface ResultPrinter extends AutoCloseable {
 
     void printArguments(List<String> arguments);
 
+    /**
+     * Called instead of {@link #printDimensions(int)} for benchmarks that are printed in long format with one column per axis,
+     * the argument of a point of these benchmarks is the comma separated list of its axis values.
+     */
+    default void printAxes(List<String> axes) {
+    }
+
+    /**
+     * Called for benchmarks in long format before the results of a point are printed,
+     * with the argument of the point and the unquoted value of every axis.
+     */
+    default void printAxisValues(String argument, List<String> axisValues) {
+    }
+
     void printInfoValue(String name, int value);
     void printInfoValue(String name, double value);
+    default void printInfoValue(String name, String value) {
+    }
+
+    void printBenchmark(String name, String argument, Statistics statistics);
+
+    default void printComparison(String name, String baselineName, String argument, StatisticsComparison comparison) {
+    }
+
+    default void printLatencyPercentiles(String name, String argument, LatencyHistogram histogram) {
+    }
 
-    void printBenchmark(String name, String argument, double elapsed, double[] allElapsed);
+    default void printMetric(String name, String argument, String metric, double value) {
+    }
 
     void printFinished();
 
@@ -1,10 +1,12 @@
 package ch.obermuhlner.java.microbenchmark.printer;
 
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.StatisticsComparison;
 import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
-import java.util.Arrays;
 import java.util.List;
 
 public class SimpleResultPrinter implements ResultPrinter {
@@ -67,38 +69,58 @@ public class SimpleResultPrinter implements ResultPrinter {
     }
 
     @Override
-    public void printBenchmark(String name, String argument, double elapsed, double[] allElapsed) {
-        int n = allElapsed.length;
-        double sum = 0;
-        for (double value : allElapsed) {
-            sum += value;
+    public void printInfoValue(String name, String value) {
+        if (verbose) {
+            out.println(String.format("%40s %30s %16s %s=%s", "", "", "", name, value));
         }
+    }
 
-        Arrays.sort(allElapsed);
-        double min = allElapsed[0];
-        double max = allElapsed[n-1];
-        double avg = sum / n;
-        double median;
-        if (n % 2 == 0) {
-            median = (allElapsed[n/2-1] + allElapsed[n/2]) / 2;
-        } else {
-            median = allElapsed[n/2];
+    @Override
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        printInfoValue("n", statistics.getCount());
+        printInfoValue("min", statistics.getMin());
+        printInfoValue("max", statistics.getMax());
+        printInfoValue("mean", statistics.getMean());
+        printInfoValue("meanConfidenceInterval", String.format("[%f, %f]", statistics.getMeanConfidenceLower(), statistics.getMeanConfidenceUpper()));
+        printInfoValue("median", statistics.getMedian());
+        printInfoValue("medianConfidenceInterval", String.format("[%f, %f]", statistics.getMedianConfidenceLower(), statistics.getMedianConfidenceUpper()));
+        printInfoValue("stddev", statistics.getStandardDeviation());
+        printInfoValue("madOutliers", statistics.getMadOutlierCount());
+        printInfoValue("tukeyOutliers", statistics.getTukeyOutlierCount());
+        out.println(String.format("%-40s %30s %16.1f %s ±%.1f%%", name, argument, statistics.getResult(), timeUnit.shortUnit, statistics.getRelativeError() * 100));
+    }
+
+    @Override
+    public void printComparison(String name, String baselineName, String argument, StatisticsComparison comparison) {
+        out.println(String.format("%-40s %30s %16.2f x %s (p=%.3f, %s)",
+                name,
+                argument,
+                comparison.getSpeedup(),
+                baselineName,
+                comparison.getMannWhitneyPValue(),
+                comparison.isSignificant() ? "significant" : "not significant"));
+    }
+
+    @Override
+    public void printLatencyPercentiles(String name, String argument, LatencyHistogram histogram) {
+        StringBuilder percentiles = new StringBuilder();
+        for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+            percentiles.append(String.format("p%s=%.1f ", formatPercentile(percentile), timeUnit.nanosecondsToTimeUnit(histogram.getValueAtPercentile(percentile))));
         }
+        percentiles.append(String.format("max=%.1f", timeUnit.nanosecondsToTimeUnit(histogram.getMaxValue())));
+        out.println(String.format("%-40s %30s %16s %s %s", name, argument, "", percentiles, timeUnit.shortUnit));
+    }
+
+    @Override
+    public void printMetric(String name, String argument, String metric, double value) {
+        out.println(String.format("%-40s %30s %16.1f %s", name, argument, value, metric));
+    }
 
-        double sumDiffSquare = 0;
-        for (double value : allElapsed) {
-            double diff = value - avg;
-            sumDiffSquare += diff*diff;
+    static String formatPercentile(double percentile) {
+        if (percentile == Math.rint(percentile)) {
+            return String.valueOf((long) percentile);
         }
-        double stddev = Math.sqrt(sumDiffSquare/(n+1));
-
-        printInfoValue("n", n);
-        printInfoValue("min", min);
-        printInfoValue("max", max);
-        printInfoValue("avg", avg);
-        printInfoValue("median", median);
-        printInfoValue("stddev", stddev);
-        out.println(String.format("%-40s %30s %16.1f %s", name, argument, elapsed, timeUnit.shortUnit));
+        return String.valueOf(percentile);
     }
 
     @Override
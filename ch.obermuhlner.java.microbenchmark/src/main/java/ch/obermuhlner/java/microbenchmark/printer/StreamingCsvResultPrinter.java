@@ -0,0 +1,245 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes every result to a CSV file as soon as it is measured and forces it to disk,
+ * so that a crash loses at most the row that was being written.
+ *
+ * One-dimensional benchmarks are written in long format with one row per benchmark, argument and metric
+ * ({@code name, argument, metric, value}), use {@link CsvPivot} to convert them into the wide format of {@link CsvResultPrinter}.
+ * Two-dimensional benchmarks are written in the wide heat map format of {@link CsvResultPrinter},
+ * every row is written as soon as all values of the row are measured.
+ * Benchmarks with more than two dimensions are written in long format with one column per axis
+ * ({@code name, axis1, ..., axisN, metric, value}).
+ */
+public class StreamingCsvResultPrinter implements ResultPrinter {
+    public static final String RESULT_METRIC = "result";
+
+    private final FileOutputStream fileOutputStream;
+    private final Writer out;
+
+    private String argumentName = "argument";
+
+    private TimeUnit timeUnit;
+    private int dimensions;
+    private boolean longFormat;
+    private List<String> names;
+    private List<String> arguments;
+
+    private int nextRowIndex;
+    private final Map<String, Map<String, Double>> pendingRows = new HashMap<>();
+    private final Map<String, String> axisValuesCsv = new HashMap<>();
+
+    public StreamingCsvResultPrinter(String fileName) throws IOException {
+        fileOutputStream = new FileOutputStream(fileName);
+        out = new OutputStreamWriter(fileOutputStream, StandardCharsets.UTF_8);
+    }
+
+    public void setArgumentName(String argumentName) {
+        this.argumentName = argumentName;
+    }
+
+    @Override
+    public void setTimeUnit(TimeUnit timeUnit) {
+        this.timeUnit = timeUnit;
+    }
+
+    @Override
+    public void printDimensions(int count) {
+        dimensions = count;
+        switch (count) {
+            case 1:
+                if (timeUnit != null) {
+                    writeLine("# csv2chart.y-axis=" + timeUnit.longUnit);
+                }
+                writeLine("name, " + argumentName + ", metric, value");
+                break;
+            case 2:
+                writeLine("# csv2chart.chart=heat");
+                writeLine("# csv2chart.header-column");
+                writeLine("# csv2chart.header-row");
+                break;
+        }
+        sync();
+    }
+
+    @Override
+    public void printNames(List<String> names) {
+        this.names = names;
+    }
+
+    @Override
+    public void printArguments(List<String> arguments) {
+        this.arguments = arguments;
+        if (dimensions == 2) {
+            StringBuilder line = new StringBuilder(String.format("%-40s", argumentName));
+            for (String name : names) {
+                line.append(", ").append(String.format("%16s", name));
+            }
+            writeLine(line.toString());
+            sync();
+        }
+    }
+
+    @Override
+    public void printAxes(List<String> axes) {
+        longFormat = true;
+        StringBuilder line = new StringBuilder("name");
+        for (String axis : axes) {
+            line.append(", ").append(toCsv(axis));
+        }
+        writeLine(line.append(", metric, value").toString());
+        sync();
+    }
+
+    @Override
+    public void printAxisValues(String argument, List<String> axisValues) {
+        axisValuesCsv.put(argument, toAxisValuesCsv(axisValues));
+    }
+
+    @Override
+    public void printInfoValue(String name, int value) {
+    }
+
+    @Override
+    public void printInfoValue(String name, double value) {
+    }
+
+    @Override
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        if (dimensions == 2) {
+            pendingRows.computeIfAbsent(argument, key -> new HashMap<>()).put(name, statistics.getResult());
+            writeCompleteRows();
+        } else {
+            writeLongRow(name, argument, RESULT_METRIC, statistics.getResult());
+        }
+    }
+
+    @Override
+    public void printLatencyPercentiles(String name, String argument, LatencyHistogram histogram) {
+        if (dimensions == 2) {
+            return;
+        }
+        for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+            writeLine(toCsv(name) + ", " + toArgumentCsv(argument) + ", p" + SimpleResultPrinter.formatPercentile(percentile) + ", " + timeUnit.nanosecondsToTimeUnit(histogram.getValueAtPercentile(percentile)));
+        }
+        writeLongRow(name, argument, "max", timeUnit.nanosecondsToTimeUnit(histogram.getMaxValue()));
+    }
+
+    @Override
+    public void printMetric(String name, String argument, String metric, double value) {
+        if (dimensions == 2) {
+            return;
+        }
+        writeLongRow(name, argument, metric, value);
+    }
+
+    @Override
+    public void printFinished() {
+        if (dimensions == 2) {
+            // rows that could not be completed (for example because a forked JVM failed)
+            while (nextRowIndex < arguments.size()) {
+                writeRow(arguments.get(nextRowIndex++));
+            }
+            sync();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeCompleteRows() {
+        boolean written = false;
+        while (nextRowIndex < arguments.size()) {
+            String argument = arguments.get(nextRowIndex);
+            Map<String, Double> row = pendingRows.get(argument);
+            if (row == null || row.size() < names.size()) {
+                break;
+            }
+            writeRow(argument);
+            nextRowIndex++;
+            written = true;
+        }
+        if (written) {
+            sync();
+        }
+    }
+
+    private void writeRow(String argument) {
+        Map<String, Double> row = pendingRows.remove(argument);
+        StringBuilder line = new StringBuilder(String.format("%-40s", argument));
+        for (String name : names) {
+            line.append(", ");
+            Double value = row == null ? null : row.get(name);
+            if (value != null) {
+                line.append(String.format("%16.1f", value));
+            }
+        }
+        writeLine(line.toString());
+    }
+
+    private void writeLongRow(String name, String argument, String metric, double value) {
+        writeLine(toCsv(name) + ", " + toArgumentCsv(argument) + ", " + toCsv(metric) + ", " + value);
+        sync();
+    }
+
+    private void writeLine(String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void sync() {
+        try {
+            out.flush();
+            fileOutputStream.getChannel().force(false);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String toArgumentCsv(String argument) {
+        // benchmarks in long format write one column per axis
+        String csv = longFormat ? axisValuesCsv.get(argument) : null;
+        return csv != null ? csv : toCsv(argument);
+    }
+
+    static String toAxisValuesCsv(List<String> axisValues) {
+        StringBuilder result = new StringBuilder();
+        for (String axisValue : axisValues) {
+            if (result.length() > 0) {
+                result.append(", ");
+            }
+            result.append(toCsv(axisValue));
+        }
+        return result.toString();
+    }
+
+    public static String toCsv(String value) {
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,69 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Recycles the buffer of the last released lazy argument for the next lazy argument of the same type and size.
+ *
+ * Only the last released argument is kept, so that the recycler never holds more than one argument.
+ * A released argument of the wrong type or size is dropped before the new buffer is allocated.
+ * A recycled buffer still contains the values of the previous argument and must be filled completely by the converter.
+ */
+public class ArgumentRecycler {
+    private Object released;
+
+    public int[] intArray(int length) {
+        if (released instanceof int[] && ((int[]) released).length == length) {
+            return (int[]) take();
+        }
+        released = null;
+        return new int[length];
+    }
+
+    public long[] longArray(int length) {
+        if (released instanceof long[] && ((long[]) released).length == length) {
+            return (long[]) take();
+        }
+        released = null;
+        return new long[length];
+    }
+
+    public double[] doubleArray(int length) {
+        if (released instanceof double[] && ((double[]) released).length == length) {
+            return (double[]) take();
+        }
+        released = null;
+        return new double[length];
+    }
+
+    public byte[] byteArray(int length) {
+        if (released instanceof byte[] && ((byte[]) released).length == length) {
+            return (byte[]) take();
+        }
+        released = null;
+        return new byte[length];
+    }
+
+    public ByteBuffer directByteBuffer(int capacity) {
+        if (released instanceof ByteBuffer && ((ByteBuffer) released).isDirect() && ((ByteBuffer) released).capacity() == capacity) {
+            ByteBuffer buffer = (ByteBuffer) take();
+            buffer.clear();
+            return buffer;
+        }
+        released = null;
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Keeps the argument for recycling, replacing the previously released argument.
+     */
+    public void release(Object argument) {
+        released = argument;
+    }
+
+    private Object take() {
+        Object recycled = released;
+        released = null;
+        return recycled;
+    }
+}
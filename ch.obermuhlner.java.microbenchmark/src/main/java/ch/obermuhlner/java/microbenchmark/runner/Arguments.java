@@ -0,0 +1,40 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.util.Arrays;
+
+/**
+ * The argument values of a single point of a multi-dimensional benchmark, one value per argument axis.
+ */
+public class Arguments {
+    private final Object[] values;
+
+    public Arguments(Object... values) {
+        this.values = values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(int index) {
+        return (T) values[index];
+    }
+
+    public int getInt(int index) {
+        return ((Number) values[index]).intValue();
+    }
+
+    public long getLong(int index) {
+        return ((Number) values[index]).longValue();
+    }
+
+    public double getDouble(int index) {
+        return ((Number) values[index]).doubleValue();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
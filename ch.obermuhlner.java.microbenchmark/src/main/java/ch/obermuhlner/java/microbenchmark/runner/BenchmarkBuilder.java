@@ -1,19 +1,33 @@
 package ch.obermuhlner.java.microbenchmark.runner;
 
+import ch.obermuhlner.java.microbenchmark.annotation.Level;
+import ch.obermuhlner.java.microbenchmark.printer.BinaryResultPrinter;
+import ch.obermuhlner.java.microbenchmark.printer.ComplexityResultPrinter;
 import ch.obermuhlner.java.microbenchmark.printer.CsvResultPrinter;
+import ch.obermuhlner.java.microbenchmark.printer.RegressionResultPrinter;
+import ch.obermuhlner.java.microbenchmark.printer.ResultPrinter;
 import ch.obermuhlner.java.microbenchmark.printer.SimpleResultPrinter;
+import ch.obermuhlner.java.microbenchmark.printer.StreamingCsvResultPrinter;
 import ch.obermuhlner.java.microbenchmark.runner.internal.BenchmarkConfig;
+import ch.obermuhlner.java.microbenchmark.runner.internal.BenchmarkSnippet;
 import ch.obermuhlner.java.microbenchmark.runner.internal.BenchmarkRunnerOneArgument;
+import ch.obermuhlner.java.microbenchmark.runner.internal.ForkedBenchmarkExecutor;
+import ch.obermuhlner.java.microbenchmark.runner.internal.LazyArguments;
 import ch.obermuhlner.java.microbenchmark.runner.internal.SimpleBenchmarkRunner;
+import ch.obermuhlner.java.microbenchmark.runner.internal.SnippetLoop;
+import ch.obermuhlner.java.microbenchmark.store.RegressionReport;
+import ch.obermuhlner.java.microbenchmark.store.ResultStore;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,6 +50,26 @@ public class BenchmarkBuilder {
         return this;
     }
 
+    public BenchmarkBuilder totalMeasureSeconds(double totalMeasureSeconds) {
+        config.setTotalMeasureSeconds(totalMeasureSeconds);
+        return this;
+    }
+
+    public BenchmarkBuilder targetPrecision(double targetPrecision) {
+        config.setTargetPrecision(targetPrecision);
+        return this;
+    }
+
+    public BenchmarkBuilder measurementOrder(MeasurementOrder measurementOrder) {
+        config.setMeasurementOrder(measurementOrder);
+        return this;
+    }
+
+    public BenchmarkBuilder measurementOrderSeed(long measurementOrderSeed) {
+        config.setMeasurementOrderSeed(measurementOrderSeed);
+        return this;
+    }
+
     public BenchmarkBuilder allocatedWarmupSeconds(double allocatedWarmupSeconds) {
         config.setAllocatedWarmupSeconds(allocatedWarmupSeconds);
         return this;
@@ -51,6 +85,21 @@ public class BenchmarkBuilder {
         return this;
     }
 
+    public BenchmarkBuilder adaptiveWarmup(boolean adaptiveWarmup) {
+        config.setAdaptiveWarmup(adaptiveWarmup);
+        return this;
+    }
+
+    public BenchmarkBuilder warmupWindowSize(int warmupWindowSize) {
+        config.setWarmupWindowSize(warmupWindowSize);
+        return this;
+    }
+
+    public BenchmarkBuilder warmupConvergenceThreshold(double warmupConvergenceThreshold) {
+        config.setWarmupConvergenceThreshold(warmupConvergenceThreshold);
+        return this;
+    }
+
     public BenchmarkBuilder warmupCount(int warmupCount) {
         return minWarmupCount(warmupCount).maxWarmupCount(warmupCount);
     }
@@ -84,6 +133,119 @@ public class BenchmarkBuilder {
         return this;
     }
 
+    public BenchmarkBuilder threads(int... threadCounts) {
+        config.setThreadCounts(threadCounts);
+        return this;
+    }
+
+    public BenchmarkBuilder fork(int forks, String... jvmArguments) {
+        config.setForkCount(forks);
+        config.setForkJvmArguments(Arrays.asList(jvmArguments));
+        return this;
+    }
+
+    /**
+     * Specifies the arguments passed to the main method of the forked JVMs.
+     */
+    public BenchmarkBuilder forkMainArguments(String... mainArguments) {
+        config.setForkMainArguments(Arrays.asList(mainArguments));
+        return this;
+    }
+
+    public BenchmarkBuilder forkEachArgument(boolean forkEachArgument) {
+        config.setForkEachArgument(forkEachArgument);
+        return this;
+    }
+
+    public BenchmarkBuilder adaptiveArgumentInitialCount(int adaptiveArgumentInitialCount) {
+        config.setAdaptiveArgumentInitialCount(adaptiveArgumentInitialCount);
+        return this;
+    }
+
+    public BenchmarkBuilder adaptiveArgumentMaxCount(int adaptiveArgumentMaxCount) {
+        config.setAdaptiveArgumentMaxCount(adaptiveArgumentMaxCount);
+        return this;
+    }
+
+    public BenchmarkBuilder adaptiveArgumentTolerance(double adaptiveArgumentTolerance) {
+        config.setAdaptiveArgumentTolerance(adaptiveArgumentTolerance);
+        return this;
+    }
+
+    public BenchmarkBuilder adaptiveArgumentTimeBudgetSeconds(double adaptiveArgumentTimeBudgetSeconds) {
+        config.setAdaptiveArgumentTimeBudgetSeconds(adaptiveArgumentTimeBudgetSeconds);
+        return this;
+    }
+
+    public BenchmarkBuilder sampleTime(int sampleInterval) {
+        config.setLatencySampleInterval(sampleInterval);
+        return this;
+    }
+
+    public BenchmarkBuilder measureAllocations(boolean measureAllocations) {
+        config.setMeasureAllocations(measureAllocations);
+        return this;
+    }
+
+    public BenchmarkBuilder correctHarnessOverhead(boolean correctHarnessOverhead) {
+        config.setCorrectHarnessOverhead(correctHarnessOverhead);
+        return this;
+    }
+
+    public BenchmarkBuilder measureGarbageCollections(boolean measureGarbageCollections) {
+        config.setMeasureGarbageCollections(measureGarbageCollections);
+        return this;
+    }
+
+    public BenchmarkBuilder garbageCollectBetweenRuns(boolean garbageCollectBetweenRuns) {
+        config.setGarbageCollectBetweenRuns(garbageCollectBetweenRuns);
+        return this;
+    }
+
+    public BenchmarkBuilder garbageCollectionSamples(GarbageCollectionSamples garbageCollectionSamples) {
+        config.setGarbageCollectionSamples(garbageCollectionSamples);
+        return this;
+    }
+
+    public BenchmarkBuilder cacheEviction(CacheEviction cacheEviction) {
+        config.setCacheEviction(cacheEviction);
+        return this;
+    }
+
+    public BenchmarkBuilder cacheEvictionBytes(long cacheEvictionBytes) {
+        config.setCacheEvictionBytes(cacheEvictionBytes);
+        return this;
+    }
+
+    public BenchmarkBuilder argumentCopies(int argumentCopies) {
+        config.setArgumentCopies(argumentCopies);
+        return this;
+    }
+
+    public BenchmarkBuilder argumentCopies(int argumentCopies, Function<Object, Object> argumentCopier) {
+        config.setArgumentCopies(argumentCopies);
+        config.setArgumentCopier(argumentCopier);
+        return this;
+    }
+
+    public BenchmarkBuilder setup(Level level, Runnable hook) {
+        return setup(level, arguments -> hook.run());
+    }
+
+    public BenchmarkBuilder setup(Level level, Consumer<Arguments> hook) {
+        config.addSetupHook(level, hook);
+        return this;
+    }
+
+    public BenchmarkBuilder tearDown(Level level, Runnable hook) {
+        return tearDown(level, arguments -> hook.run());
+    }
+
+    public BenchmarkBuilder tearDown(Level level, Consumer<Arguments> hook) {
+        config.addTearDownHook(level, hook);
+        return this;
+    }
+
     public BenchmarkBuilder timeoutSeconds(long timeoutSeconds) {
         config.setTimeoutSeconds(timeoutSeconds);
         return this;
@@ -95,6 +257,9 @@ public class BenchmarkBuilder {
     }
 
     public BenchmarkBuilder csvReport(String fileName) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return this;
+        }
         try {
             CsvResultPrinter csvResultPrinter = new CsvResultPrinter(new PrintWriter(new BufferedWriter(new FileWriter(fileName))));
             config.resultPrinter.addResultPrinter(csvResultPrinter);
@@ -104,7 +269,34 @@ public class BenchmarkBuilder {
         return this;
     }
 
+    public BenchmarkBuilder streamingCsvReport(String fileName) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return this;
+        }
+        try {
+            config.resultPrinter.addResultPrinter(new StreamingCsvResultPrinter(fileName));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
+    }
+
+    public BenchmarkBuilder binaryReport(String fileName) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return this;
+        }
+        try {
+            config.resultPrinter.addResultPrinter(new BinaryResultPrinter(fileName));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
+    }
+
     public BenchmarkBuilder printReport(String fileName) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return this;
+        }
         try {
             config.resultPrinter.addResultPrinter(new SimpleResultPrinter(new PrintStream(fileName)));
         } catch (IOException e) {
@@ -113,6 +305,38 @@ public class BenchmarkBuilder {
         return this;
     }
 
+    public BenchmarkBuilder complexityReport() {
+        return resultPrinter(new ComplexityResultPrinter());
+    }
+
+    public BenchmarkBuilder complexityReport(String fileName) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return this;
+        }
+        try {
+            config.resultPrinter.addResultPrinter(new ComplexityResultPrinter(fileName));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
+    }
+
+    public BenchmarkBuilder regressionReport(String storeDirectory, String suite) {
+        return regressionReport(storeDirectory, suite, RegressionReport.DEFAULT_THRESHOLD);
+    }
+
+    public BenchmarkBuilder regressionReport(String storeDirectory, String suite, double threshold) {
+        return resultPrinter(new RegressionResultPrinter(new ResultStore(storeDirectory), suite, threshold));
+    }
+
+    public BenchmarkBuilder resultPrinter(ResultPrinter resultPrinter) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return this;
+        }
+        config.resultPrinter.addResultPrinter(resultPrinter);
+        return this;
+    }
+
     public BenchmarkBuilder timeUnit(TimeUnit timeUnit) {
         config.setTimeUnit(timeUnit);
         return this;
@@ -156,6 +380,69 @@ public class BenchmarkBuilder {
         return forArguments(arguments, argumentsNames);
     }
 
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, Function<A, T> converter) {
+        return forLazyLoop(startValue, condition, stepFunction, converter, String::valueOf);
+    }
+
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, Function<A, T> converter, Function<A, String> argumentToNameFunction) {
+        return forLazyArguments(loopValues(startValue, condition, stepFunction), converter, argumentToNameFunction);
+    }
+
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, BiFunction<A, ArgumentRecycler, T> converter) {
+        return forLazyLoop(startValue, condition, stepFunction, converter, String::valueOf);
+    }
+
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, BiFunction<A, ArgumentRecycler, T> converter, Function<A, String> argumentToNameFunction) {
+        return forLazyArguments(loopValues(startValue, condition, stepFunction), converter, argumentToNameFunction);
+    }
+
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyArguments(List<A> values, Function<A, T> converter) {
+        return forLazyArguments(values, converter, String::valueOf);
+    }
+
+    /**
+     * Creates every argument from its value only just before it is warmed up and measured, and releases it afterwards.
+     * The argument names are created immediately from the values.
+     */
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyArguments(List<A> values, Function<A, T> converter, Function<A, String> argumentToNameFunction) {
+        return forLazyArguments(new LazyArguments<A, T>(values, (value, recycler) -> converter.apply(value), null), values, argumentToNameFunction);
+    }
+
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyArguments(List<A> values, BiFunction<A, ArgumentRecycler, T> converter) {
+        return forLazyArguments(values, converter, String::valueOf);
+    }
+
+    /**
+     * Creates every argument lazily like {@link #forLazyArguments(List, Function, Function)},
+     * the converter can reuse the buffer of the previous argument with the {@link ArgumentRecycler}.
+     */
+    public <A, T> BenchmarkRunnerOneArgument<T> forLazyArguments(List<A> values, BiFunction<A, ArgumentRecycler, T> converter, Function<A, String> argumentToNameFunction) {
+        return forLazyArguments(new LazyArguments<A, T>(values, converter, new ArgumentRecycler()), values, argumentToNameFunction);
+    }
+
+    private <A, T> BenchmarkRunnerOneArgument<T> forLazyArguments(LazyArguments<A, T> arguments, List<A> values, Function<A, String> argumentToNameFunction) {
+        List<String> argumentsNames = values.stream().map(argumentToNameFunction).collect(Collectors.toList());
+        return forArguments(arguments, argumentsNames);
+    }
+
+    private static <A> List<A> loopValues(A startValue, Predicate<A> condition, Function<A, A> stepFunction) {
+        List<A> values = new ArrayList<>();
+        A value = startValue;
+        while (condition.test(value)) {
+            values.add(value);
+            value = stepFunction.apply(value);
+        }
+        return values;
+    }
+
+    public BenchmarkRunnerOneArgument<Integer> forAdaptiveLoop(int startValue, int exclEndValue) {
+        return forAdaptiveLoop(startValue, exclEndValue, Function.identity());
+    }
+
+    public <T> BenchmarkRunnerOneArgument<T> forAdaptiveLoop(int startValue, int exclEndValue, Function<Integer, T> converter) {
+        return new BenchmarkRunnerOneArgument<T>(config, startValue, exclEndValue - 1, converter);
+    }
+
     public <T> BenchmarkRunnerOneArgument<T> forArguments(Stream<T> stream) {
         return forArguments(stream.collect(Collectors.toList()));
     }
@@ -178,17 +465,43 @@ public class BenchmarkBuilder {
     }
 
     public double measure(Runnable snippet) {
-        return new SimpleBenchmarkRunner(config)
-                .measure(snippet);
+        return measure(new BenchmarkSnippet(SnippetLoop.RUNNABLE, snippet));
     }
 
     public <T> double measure(Consumer<T> snippet, T argument) {
-        return new SimpleBenchmarkRunner(config)
-                .measure(() -> snippet.accept(argument));
+        return measure(new BenchmarkSnippet(SnippetLoop.CONSUMER, snippet), argument);
     }
 
     public <T1, T2> double measure(BiConsumer<T1, T2> snippet, T1 argument1, T2 argument2) {
+        return measure(new BenchmarkSnippet(SnippetLoop.BI_CONSUMER, snippet), argument1, argument2);
+    }
+
+    public <R> double measureFunction(Supplier<R> snippet) {
+        return measure(new BenchmarkSnippet(SnippetLoop.SUPPLIER, snippet));
+    }
+
+    public <T, R> double measureFunction(Function<T, R> snippet, T argument) {
+        return measure(new BenchmarkSnippet(SnippetLoop.FUNCTION, snippet), argument);
+    }
+
+    public <T1, T2, R> double measureFunction(BiFunction<T1, T2, R> snippet, T1 argument1, T2 argument2) {
+        return measure(new BenchmarkSnippet(SnippetLoop.BI_FUNCTION, snippet), argument1, argument2);
+    }
+
+    public double measure(Consumer<Blackhole> snippet) {
+        return measure(new BenchmarkSnippet(SnippetLoop.CONSUMER, snippet, true));
+    }
+
+    public <T> double measure(BiConsumer<T, Blackhole> snippet, T argument) {
+        return measure(new BenchmarkSnippet(SnippetLoop.BI_CONSUMER, snippet, true), argument);
+    }
+
+    public <T1, T2> double measure(TriConsumer<T1, T2, Blackhole> snippet, T1 argument1, T2 argument2) {
+        return measure(new BenchmarkSnippet(SnippetLoop.TRI_CONSUMER, snippet, true), argument1, argument2);
+    }
+
+    private double measure(BenchmarkSnippet snippet, Object... arguments) {
         return new SimpleBenchmarkRunner(config)
-                .measure(() -> snippet.accept(argument1, argument2));
+                .measure(snippet, arguments);
     }
 }
@@ -3,11 +3,25 @@ package ch.obermuhlner.java.microbenchmark.runner;
 import ch.obermuhlner.java.microbenchmark.annotation.Benchmark;
 import ch.obermuhlner.java.microbenchmark.annotation.BenchmarkArgument;
 import ch.obermuhlner.java.microbenchmark.annotation.BenchmarkSuite;
+import ch.obermuhlner.java.microbenchmark.annotation.Level;
+import ch.obermuhlner.java.microbenchmark.annotation.Setup;
+import ch.obermuhlner.java.microbenchmark.annotation.TearDown;
 import ch.obermuhlner.java.microbenchmark.runner.internal.BenchmarkRunnerOneArgument;
 import ch.obermuhlner.java.microbenchmark.runner.internal.BenchmarkRunnerTwoArguments;
+import ch.obermuhlner.java.microbenchmark.store.ArgumentCache;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class BenchmarkClassRunner {
@@ -24,15 +38,17 @@ public class BenchmarkClassRunner {
         String suiteName = clazz.getSimpleName();
 
         BenchmarkBuilder benchmark = new BenchmarkBuilder();
-        BenchmarkRunnerOneArgument benchmarkRunnerOneArgument = null;
-        BenchmarkRunnerTwoArguments benchmarkRunnerTwoArguments = null;
+        BenchmarkRunnerOneArgument<Object> benchmarkRunnerOneArgument = null;
+        BenchmarkRunnerTwoArguments<Object, Object> benchmarkRunnerTwoArguments = null;
 
+        String argumentCacheDirectory = ArgumentCache.DEFAULT_DIRECTORY;
         BenchmarkSuite suiteAnnotation = clazz.getAnnotation(BenchmarkSuite.class);
         if (suiteAnnotation != null) {
             if (suiteAnnotation.value() != null && !suiteAnnotation.value().equals("")) {
                 suiteName = suiteAnnotation.value();
             }
             benchmark.allocatedMeasureSeconds(suiteAnnotation.allocatedSeconds());
+            argumentCacheDirectory = suiteAnnotation.argumentCacheDirectory();
         }
 
         benchmark.csvReport(suiteName + ".csv");
@@ -54,7 +70,12 @@ public class BenchmarkClassRunner {
         for (Method method : clazz.getMethods()) {
             BenchmarkArgument annotation = method.getDeclaredAnnotation(BenchmarkArgument.class);
             if (annotation != null) {
-                Object argument = method.invoke(instance);
+                Object argument;
+                if (method.getParameterCount() == 1 && method.getParameterTypes()[0] == ArgumentCache.class) {
+                    argument = method.invoke(instance, new ArgumentCache(argumentCacheDirectory));
+                } else {
+                    argument = method.invoke(instance);
+                }
                 indexToArgumentsMap.put(annotation.value(), argument);
             }
         }
@@ -62,55 +83,65 @@ public class BenchmarkClassRunner {
         List<Integer> sortIndexes = new ArrayList<>(indexToArgumentsMap.keySet());
         Collections.sort(sortIndexes);
 
+        List<List<Object>> argumentLists = new ArrayList<>();
         for (int argumentIndex : sortIndexes) {
             Object argument = indexToArgumentsMap.get(argumentIndex);
+            List<Object> argumentList = toArgumentList(argument);
+            if (argumentList != null) {
+                argumentLists.add(argumentList);
+            }
+        }
 
-            if (argument == null) {
-                // ignore
-            } else if (argument instanceof List) {
-                benchmarkRunnerOneArgument = benchmark.forArguments((List) argument);
-            } else if (argument instanceof Stream) {
-                benchmarkRunnerOneArgument = benchmark.forArguments((Stream) argument);
-            } else if (argument instanceof Object[]) {
-                benchmarkRunnerOneArgument = benchmark.forArguments((Object[]) argument);
-            } else if (argument.getClass().isArray()) {
-                List<Object> objectArguments = new ArrayList<>();
-                int length = Array.getLength(argument);
-                for (int i = 0; i < length; i ++) {
-                    objectArguments.add(Array.get(argument, i));
-                }
-                benchmarkRunnerOneArgument = benchmark.forArguments(objectArguments);
-            } else {
-                // TODO ignore or exception?
+        for (Method method : clazz.getMethods()) {
+            Setup setupAnnotation = method.getDeclaredAnnotation(Setup.class);
+            if (setupAnnotation != null) {
+                benchmark.setup(setupAnnotation.value(), bindHook(instance, method, setupAnnotation.value(), argumentLists.size()));
+            }
+            TearDown tearDownAnnotation = method.getDeclaredAnnotation(TearDown.class);
+            if (tearDownAnnotation != null) {
+                benchmark.tearDown(tearDownAnnotation.value(), bindHook(instance, method, tearDownAnnotation.value(), argumentLists.size()));
             }
         }
 
+        switch (argumentLists.size()) {
+            case 1:
+                benchmarkRunnerOneArgument = benchmark.forArguments(argumentLists.get(0));
+                break;
+            case 2:
+                benchmarkRunnerTwoArguments = benchmark.forArguments(argumentLists.get(0)).forArguments(argumentLists.get(1));
+                break;
+            default:
+                throw new RuntimeException("Benchmark suite must have 1 or 2 arguments: " + suiteName);
+        }
+
         for (Method method : clazz.getMethods()) {
             Benchmark annotation = method.getDeclaredAnnotation(Benchmark.class);
             if (annotation != null) {
-                switch(sortIndexes.size()) {
-                    case 1:
-                        benchmarkRunnerOneArgument.benchmark(method.getName(), arg -> {
-                            try {
-                                method.invoke(instance, arg);
-                            } catch (IllegalAccessException e) {
-                                e.printStackTrace();
-                            } catch (InvocationTargetException e) {
-                                e.printStackTrace();
-                            }
-                        });
-                        break;
-                    case 2:
-                        benchmarkRunnerTwoArguments.benchmark(method.getName(), (arg1, arg2) -> {
-                            try {
-                                method.invoke(instance, arg1, arg2);
-                            } catch (IllegalAccessException e) {
-                                e.printStackTrace();
-                            } catch (InvocationTargetException e) {
-                                e.printStackTrace();
-                            }
-                        });
-                        break;
+                if (method.getParameterCount() != argumentLists.size()) {
+                    throw new RuntimeException("Benchmark method must have " + argumentLists.size() + " parameters: " + method);
+                }
+
+                Object snippet = bindMethod(instance, method);
+                if (benchmarkRunnerTwoArguments != null) {
+                    if (snippet instanceof BiFunction) {
+                        @SuppressWarnings("unchecked")
+                        BiFunction<Object, Object, Object> function = (BiFunction<Object, Object, Object>) snippet;
+                        benchmarkRunnerTwoArguments.benchmarkFunction(method.getName(), function);
+                    } else {
+                        @SuppressWarnings("unchecked")
+                        BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) snippet;
+                        benchmarkRunnerTwoArguments.benchmark(method.getName(), consumer);
+                    }
+                } else {
+                    if (snippet instanceof Function) {
+                        @SuppressWarnings("unchecked")
+                        Function<Object, Object> function = (Function<Object, Object>) snippet;
+                        benchmarkRunnerOneArgument.benchmarkFunction(method.getName(), function);
+                    } else {
+                        @SuppressWarnings("unchecked")
+                        Consumer<Object> consumer = (Consumer<Object>) snippet;
+                        benchmarkRunnerOneArgument.benchmark(method.getName(), consumer);
+                    }
                 }
             }
         }
@@ -123,4 +154,155 @@ public class BenchmarkClassRunner {
             throw new RuntimeException("No benchmarks to run");
         }
     }
+
+    public static List<Object> toArgumentList(Object argument) {
+        if (argument == null) {
+            return null;
+        } else if (argument instanceof List) {
+            return new ArrayList<>((List<?>) argument);
+        } else if (argument instanceof Stream) {
+            return ((Stream<?>) argument).collect(Collectors.toList());
+        } else if (argument instanceof Object[]) {
+            return Arrays.asList((Object[]) argument);
+        } else if (argument.getClass().isArray()) {
+            List<Object> objectArguments = new ArrayList<>();
+            int length = Array.getLength(argument);
+            for (int i = 0; i < length; i ++) {
+                objectArguments.add(Array.get(argument, i));
+            }
+            return objectArguments;
+        } else {
+            // TODO ignore or exception?
+            return null;
+        }
+    }
+
+    /**
+     * Binds a setup or tear down method to the instance.
+     *
+     * Iteration and invocation hooks may take the same parameters as the benchmark methods to receive the current arguments.
+     */
+    private static Consumer<Arguments> bindHook(Object instance, Method method, Level level, int argumentCount) {
+        int parameterCount = method.getParameterCount();
+        if (parameterCount != 0 && (level == Level.Trial || parameterCount != argumentCount)) {
+            throw new RuntimeException(level + " setup and tear down methods must have " + (level == Level.Trial ? "0" : "0 or " + argumentCount) + " parameters: " + method);
+        }
+        if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            method.setAccessible(true);
+        }
+
+        return arguments -> {
+            Object[] values = new Object[parameterCount];
+            for (int i = 0; i < parameterCount; i++) {
+                values[i] = arguments.get(i);
+            }
+            try {
+                method.invoke(instance, values);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        };
+    }
+
+    /**
+     * Binds the benchmark method to the instance as {@link Consumer}, {@link Function}, {@link BiConsumer} or {@link BiFunction}.
+     *
+     * The functional interface is implemented directly by {@link LambdaMetafactory},
+     * so calling it does not go through reflection (no argument array, no exception wrapping).
+     * Primitive parameters are unboxed and non-void results are returned so that they can be consumed by a {@link Blackhole}.
+     */
+    private static Object bindMethod(Object instance, Method method) throws IllegalAccessException {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        boolean hasResult = method.getReturnType() != void.class;
+        int parameterCount = method.getParameterCount();
+
+        Class<?> functionalInterface;
+        if (parameterCount == 1) {
+            functionalInterface = hasResult ? Function.class : Consumer.class;
+        } else {
+            functionalInterface = hasResult ? BiFunction.class : BiConsumer.class;
+        }
+        String functionalMethodName = hasResult ? "apply" : "accept";
+
+        MethodHandles.Lookup lookup = lookupFor(method.getDeclaringClass());
+        if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            method.setAccessible(true);
+        }
+        MethodHandle methodHandle = lookup.unreflect(method);
+
+        MethodType functionalMethodType = MethodType.genericMethodType(parameterCount);
+        MethodType instantiatedMethodType = MethodType.methodType(method.getReturnType(), method.getParameterTypes()).wrap();
+        if (!hasResult) {
+            functionalMethodType = functionalMethodType.changeReturnType(void.class);
+            instantiatedMethodType = instantiatedMethodType.changeReturnType(void.class);
+        }
+        MethodType factoryType = isStatic ?
+                MethodType.methodType(functionalInterface) :
+                MethodType.methodType(functionalInterface, method.getDeclaringClass());
+
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    functionalMethodName,
+                    factoryType,
+                    functionalMethodType,
+                    methodHandle,
+                    instantiatedMethodType);
+            return isStatic ?
+                    callSite.getTarget().invoke() :
+                    callSite.getTarget().invoke(instance);
+        } catch (Throwable e) {
+            // the lambda cannot be spun for this class, fall back to invoking the method handle
+            return bindMethodHandle(isStatic ? methodHandle : methodHandle.bindTo(instance), parameterCount, hasResult);
+        }
+    }
+
+    private static Object bindMethodHandle(MethodHandle methodHandle, int parameterCount, boolean hasResult) {
+        MethodHandle genericHandle = methodHandle.asType(MethodType.genericMethodType(parameterCount));
+        if (parameterCount == 1) {
+            Function<Object, Object> function = argument -> invokeMethodHandle(genericHandle, argument);
+            if (hasResult) {
+                return function;
+            }
+            return (Consumer<Object>) function::apply;
+        } else {
+            BiFunction<Object, Object, Object> function = (argument1, argument2) -> invokeMethodHandle(genericHandle, argument1, argument2);
+            if (hasResult) {
+                return function;
+            }
+            return (BiConsumer<Object, Object>) function::apply;
+        }
+    }
+
+    private static Object invokeMethodHandle(MethodHandle methodHandle, Object argument) {
+        try {
+            return (Object) methodHandle.invokeExact(argument);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Object invokeMethodHandle(MethodHandle methodHandle, Object argument1, Object argument2) {
+        try {
+            return (Object) methodHandle.invokeExact(argument1, argument2);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookupFor(Class<?> clazz) {
+        try {
+            // Java 9+: spin the lambda in the benchmark class so that non-public classes work as well
+            Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            return (MethodHandles.Lookup) privateLookupIn.invoke(null, clazz, MethodHandles.lookup());
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return MethodHandles.lookup();
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Runs the benchmark suites that were generated at compile time.
+ *
+ * Without arguments all suites are run, otherwise only the suites with the given names.
+ */
+public class BenchmarkSuiteLauncher {
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            runAll();
+        } else {
+            run(args);
+        }
+    }
+
+    public static List<BenchmarkSuiteRunner> findAll() {
+        List<BenchmarkSuiteRunner> result = new ArrayList<>();
+        for (BenchmarkSuiteRunner suiteRunner : ServiceLoader.load(BenchmarkSuiteRunner.class)) {
+            result.add(suiteRunner);
+        }
+        return result;
+    }
+
+    public static void runAll() {
+        for (BenchmarkSuiteRunner suiteRunner : findAll()) {
+            suiteRunner.run();
+        }
+    }
+
+    public static void run(String... names) {
+        List<String> remainingNames = new ArrayList<>(Arrays.asList(names));
+        for (BenchmarkSuiteRunner suiteRunner : findAll()) {
+            if (remainingNames.remove(suiteRunner.getName())) {
+                suiteRunner.run();
+            }
+        }
+        if (!remainingNames.isEmpty()) {
+            throw new RuntimeException("Benchmark suites not found: " + remainingNames);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+/**
+ * Runs a benchmark suite without reflection.
+ *
+ * Implementations are generated at compile time for every {@code @BenchmarkSuite}
+ * and registered as service in {@code META-INF/services}.
+ */
+public interface BenchmarkSuiteRunner {
+    String getName();
+
+    void run();
+}
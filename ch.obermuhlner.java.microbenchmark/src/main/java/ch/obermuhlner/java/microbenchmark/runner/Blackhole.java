@@ -0,0 +1,80 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+/**
+ * Consumes values so that the JIT cannot eliminate the computation that produced them.
+ *
+ * The consume methods do not allocate.
+ * They compare against volatile fields in a way that never succeeds,
+ * which the JIT cannot prove and therefore has to keep the consumed value alive.
+ *
+ * A blackhole must only be used by one thread at a time, every benchmark thread is given its own blackhole.
+ */
+public final class Blackhole {
+
+    private volatile boolean boolean1 = false;
+    private volatile boolean boolean2 = true;
+    private volatile int int1 = 1;
+    private volatile int int2 = 2;
+    private volatile long long1 = 1;
+    private volatile long long2 = 2;
+    private volatile float float1 = 1;
+    private volatile float float2 = 2;
+    private volatile double double1 = 1;
+    private volatile double double2 = 2;
+
+    private volatile int objectMask = 1;
+    private int objectRandom = (int) System.nanoTime();
+    private Object objectSink;
+
+    public void consume(Object value) {
+        int mask = objectMask;
+        int random = objectRandom = objectRandom * 1664525 + 1013904223;
+        if ((random & mask) == 0) {
+            // store rarely and less often every time, so the JIT must assume the value is used
+            objectSink = value;
+            objectMask = (mask << 1) + 1;
+        }
+    }
+
+    public void consume(boolean value) {
+        if ((value ^ boolean1) == (value ^ boolean2)) {
+            throw new IllegalStateException("Blackhole failure");
+        }
+    }
+
+    public void consume(byte value) {
+        consume((int) value);
+    }
+
+    public void consume(short value) {
+        consume((int) value);
+    }
+
+    public void consume(char value) {
+        consume((int) value);
+    }
+
+    public void consume(int value) {
+        if ((value ^ int1) == (value ^ int2)) {
+            throw new IllegalStateException("Blackhole failure");
+        }
+    }
+
+    public void consume(long value) {
+        if ((value ^ long1) == (value ^ long2)) {
+            throw new IllegalStateException("Blackhole failure");
+        }
+    }
+
+    public void consume(float value) {
+        if (value == float1 & value == float2) {
+            throw new IllegalStateException("Blackhole failure");
+        }
+    }
+
+    public void consume(double value) {
+        if (value == double1 & value == double2) {
+            throw new IllegalStateException("Blackhole failure");
+        }
+    }
+}
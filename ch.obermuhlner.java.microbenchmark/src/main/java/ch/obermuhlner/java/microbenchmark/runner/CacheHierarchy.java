@@ -0,0 +1,105 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The sizes of the data caches of the CPU, detected once per JVM.
+ *
+ * The sizes are read from {@code /sys/devices/system/cpu/cpu0/cache} on Linux,
+ * on other systems (or if the detection fails) typical sizes of 32 KB, 1 MB and 32 MB are assumed.
+ */
+public class CacheHierarchy {
+    private static final long[] DEFAULT_CACHE_BYTES = { 32 * 1024, 1024 * 1024, 32 * 1024 * 1024 };
+
+    private static CacheHierarchy instance;
+
+    private final long[] cacheBytes;
+
+    private CacheHierarchy(long[] cacheBytes) {
+        this.cacheBytes = cacheBytes;
+    }
+
+    public static synchronized CacheHierarchy getInstance() {
+        if (instance == null) {
+            instance = new CacheHierarchy(detectCacheBytes());
+        }
+        return instance;
+    }
+
+    public int getLevelCount() {
+        return cacheBytes.length;
+    }
+
+    /**
+     * Returns the size of the data cache of the specified level, starting with 1 for the L1 cache.
+     */
+    public long getCacheBytes(int level) {
+        return cacheBytes[level - 1];
+    }
+
+    public long getLastLevelCacheBytes() {
+        return cacheBytes[cacheBytes.length - 1];
+    }
+
+    /**
+     * Returns the name of the smallest cache level that can hold the working set, for example {@code "L2"},
+     * or {@code "DRAM"} if the working set is larger than the last level cache.
+     */
+    public String getCacheLevel(long workingSetBytes) {
+        for (int i = 0; i < cacheBytes.length; i++) {
+            if (workingSetBytes <= cacheBytes[i]) {
+                return "L" + (i + 1);
+            }
+        }
+        return "DRAM";
+    }
+
+    private static long[] detectCacheBytes() {
+        File[] cacheDirectories = new File("/sys/devices/system/cpu/cpu0/cache").listFiles((dir, name) -> name.startsWith("index"));
+        if (cacheDirectories == null) {
+            return DEFAULT_CACHE_BYTES;
+        }
+
+        Map<Integer, Long> levelToBytes = new TreeMap<>();
+        for (File cacheDirectory : cacheDirectories) {
+            try {
+                if ("Instruction".equals(readLine(new File(cacheDirectory, "type")))) {
+                    continue;
+                }
+                int level = Integer.parseInt(readLine(new File(cacheDirectory, "level")));
+                long bytes = parseSize(readLine(new File(cacheDirectory, "size")));
+                levelToBytes.merge(level, bytes, Math::max);
+            } catch (IOException | NumberFormatException e) {
+                // ignore cache without type, level or size
+            }
+        }
+        if (levelToBytes.isEmpty()) {
+            return DEFAULT_CACHE_BYTES;
+        }
+        return levelToBytes.values().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static String readLine(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).trim();
+    }
+
+    private static long parseSize(String size) {
+        long factor = 1;
+        if (size.endsWith("K")) {
+            factor = 1024;
+        } else if (size.endsWith("M")) {
+            factor = 1024 * 1024;
+        } else if (size.endsWith("G")) {
+            factor = 1024 * 1024 * 1024;
+        }
+        if (factor != 1) {
+            size = size.substring(0, size.length() - 1);
+        }
+        return Long.parseLong(size) * factor;
+    }
+}
@@ -0,0 +1,340 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Estimates the empirical complexity of a benchmark from the results of a sweep over the input size.
+ *
+ * The models O(1), O(log n), O(n), O(n log n) and O(n^2) are fitted as {@code a + b*f(n)} with least squares,
+ * the free power law {@code a*n^k} is fitted in log-log space.
+ * The best model is the one with the highest adjusted R², a growing model must explain at least {@link #MIN_R_SQUARED}
+ * of the variance to be preferred over O(1) and the power law must fit clearly better than the named models.
+ *
+ * Inflection points are found by recursively splitting the log-log curve at the point where two separate lines
+ * fit much better than a single line and their slopes differ by at least {@link #MIN_SLOPE_CHANGE}.
+ */
+public class ComplexityFit {
+
+    public static final double MIN_R_SQUARED = 0.5;
+    public static final double MIN_SLOPE_CHANGE = 0.5;
+
+    private static final double POWER_LAW_MIN_IMPROVEMENT = 0.01;
+    private static final int MIN_SEGMENT_POINTS = 3;
+    private static final double MIN_SPLIT_RESIDUAL_RATIO = 0.5;
+
+    private final double[] arguments;
+    private final double[] results;
+    private final List<ModelFit> modelFits = new ArrayList<>();
+    private final ModelFit bestFit;
+    private final List<InflectionPoint> inflectionPoints = new ArrayList<>();
+
+    /**
+     * @param arguments the input sizes, only positive input sizes are used
+     * @param results the measured results for the input sizes
+     */
+    public ComplexityFit(double[] arguments, double[] results) {
+        if (arguments.length != results.length) {
+            throw new RuntimeException("Expected the same number of arguments and results: " + arguments.length + " != " + results.length);
+        }
+
+        Integer[] order = new Integer[arguments.length];
+        int count = 0;
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] > 0) {
+                order[count++] = i;
+            }
+        }
+        if (count < MIN_SEGMENT_POINTS) {
+            throw new RuntimeException("Expected at least " + MIN_SEGMENT_POINTS + " positive arguments to fit the complexity, but got " + count);
+        }
+        Arrays.sort(order, 0, count, Comparator.comparingDouble(i -> arguments[i]));
+        this.arguments = new double[count];
+        this.results = new double[count];
+        for (int i = 0; i < count; i++) {
+            this.arguments[i] = arguments[order[i]];
+            this.results[i] = results[order[i]];
+        }
+
+        ModelFit best = null;
+        double bestAdjustedRSquared = MIN_R_SQUARED;
+        for (ComplexityModel model : ComplexityModel.values()) {
+            ModelFit fit = model == ComplexityModel.PowerLaw ? fitPowerLaw() : fitModel(model);
+            modelFits.add(fit);
+
+            if (model == ComplexityModel.Constant) {
+                best = fit;
+            } else if (fit.coefficient > 0) {
+                double requiredAdjustedRSquared = model == ComplexityModel.PowerLaw ? bestAdjustedRSquared + POWER_LAW_MIN_IMPROVEMENT : bestAdjustedRSquared;
+                if (fit.adjustedRSquared > requiredAdjustedRSquared) {
+                    best = fit;
+                    bestAdjustedRSquared = fit.adjustedRSquared;
+                }
+            }
+        }
+        bestFit = best;
+
+        double[] pointArguments = new double[count];
+        double[] logArguments = new double[count];
+        double[] logResults = new double[count];
+        int logCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (this.results[i] > 0) {
+                pointArguments[logCount] = this.arguments[i];
+                logArguments[logCount] = Math.log(this.arguments[i]);
+                logResults[logCount] = Math.log(this.results[i]);
+                logCount++;
+            }
+        }
+        findInflectionPoints(pointArguments, logArguments, logResults, 0, logCount);
+    }
+
+    /**
+     * Returns the positive arguments in ascending order.
+     */
+    public double[] getArguments() {
+        return arguments.clone();
+    }
+
+    /**
+     * Returns the results in the order of {@link #getArguments()}.
+     */
+    public double[] getResults() {
+        return results.clone();
+    }
+
+    public List<ModelFit> getModelFits() {
+        return Collections.unmodifiableList(modelFits);
+    }
+
+    public ModelFit getModelFit(ComplexityModel model) {
+        return modelFits.get(model.ordinal());
+    }
+
+    public ModelFit getBestFit() {
+        return bestFit;
+    }
+
+    public List<InflectionPoint> getInflectionPoints() {
+        return Collections.unmodifiableList(inflectionPoints);
+    }
+
+    private ModelFit fitModel(ComplexityModel model) {
+        if (model == ComplexityModel.Constant) {
+            return new ModelFit(model, Statistics.mean(results), 0);
+        }
+
+        double[] x = new double[arguments.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = model.apply(arguments[i]);
+        }
+        double[] line = fitLine(x, results, 0, x.length);
+        return new ModelFit(model, line[0], line[1]);
+    }
+
+    private ModelFit fitPowerLaw() {
+        List<Double> logArguments = new ArrayList<>();
+        List<Double> logResults = new ArrayList<>();
+        for (int i = 0; i < arguments.length; i++) {
+            if (results[i] > 0) {
+                logArguments.add(Math.log(arguments[i]));
+                logResults.add(Math.log(results[i]));
+            }
+        }
+        if (logArguments.size() < 2) {
+            return new ModelFit(ComplexityModel.PowerLaw, 0, 0);
+        }
+
+        double[] x = new double[logArguments.size()];
+        double[] y = new double[logResults.size()];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = logArguments.get(i);
+            y[i] = logResults.get(i);
+        }
+        double[] line = fitLine(x, y, 0, x.length);
+        return new ModelFit(ComplexityModel.PowerLaw, Math.exp(line[0]), line[1]);
+    }
+
+    private void findInflectionPoints(double[] pointArguments, double[] x, double[] y, int from, int to) {
+        if (to - from < 2 * MIN_SEGMENT_POINTS) {
+            return;
+        }
+
+        double wholeResidual = fitLine(x, y, from, to)[2];
+        int bestSplit = -1;
+        double bestResidual = Double.MAX_VALUE;
+        for (int split = from + MIN_SEGMENT_POINTS; split <= to - MIN_SEGMENT_POINTS; split++) {
+            double residual = fitLine(x, y, from, split)[2] + fitLine(x, y, split, to)[2];
+            if (residual < bestResidual) {
+                bestResidual = residual;
+                bestSplit = split;
+            }
+        }
+
+        double slopeBefore = fitLine(x, y, from, bestSplit)[1];
+        double slopeAfter = fitLine(x, y, bestSplit, to)[1];
+        if (Math.abs(slopeAfter - slopeBefore) >= MIN_SLOPE_CHANGE && bestResidual <= wholeResidual * MIN_SPLIT_RESIDUAL_RATIO) {
+            findInflectionPoints(pointArguments, x, y, from, bestSplit);
+            inflectionPoints.add(new InflectionPoint(pointArguments[bestSplit], slopeBefore, slopeAfter));
+            findInflectionPoints(pointArguments, x, y, bestSplit, to);
+        }
+    }
+
+    /**
+     * Fits {@code y = a + b*x} with least squares and returns {@code a}, {@code b} and the residual sum of squares.
+     */
+    private static double[] fitLine(double[] x, double[] y, int from, int to) {
+        int n = to - from;
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = from; i < to; i++) {
+            meanX += x[i];
+            meanY += y[i];
+        }
+        meanX /= n;
+        meanY /= n;
+
+        double sumXX = 0;
+        double sumXY = 0;
+        for (int i = from; i < to; i++) {
+            sumXX += (x[i] - meanX) * (x[i] - meanX);
+            sumXY += (x[i] - meanX) * (y[i] - meanY);
+        }
+        double slope = sumXX == 0 ? 0 : sumXY / sumXX;
+        double intercept = meanY - slope * meanX;
+
+        double residual = 0;
+        for (int i = from; i < to; i++) {
+            double diff = y[i] - (intercept + slope * x[i]);
+            residual += diff * diff;
+        }
+        return new double[] { intercept, slope, residual };
+    }
+
+    public class ModelFit {
+        private final ComplexityModel model;
+        private final double constant;
+        private final double coefficient;
+        private final double rSquared;
+        private final double adjustedRSquared;
+
+        ModelFit(ComplexityModel model, double constant, double coefficient) {
+            this.model = model;
+            this.constant = constant;
+            this.coefficient = coefficient;
+
+            double meanResult = Statistics.mean(results);
+            double residual = 0;
+            double total = 0;
+            for (int i = 0; i < arguments.length; i++) {
+                double diff = results[i] - predict(arguments[i]);
+                residual += diff * diff;
+                total += (results[i] - meanResult) * (results[i] - meanResult);
+            }
+            rSquared = total == 0 ? 1 : 1 - residual / total;
+            int predictors = model == ComplexityModel.Constant ? 0 : 1;
+            adjustedRSquared = 1 - (1 - rSquared) * (arguments.length - 1) / (arguments.length - predictors - 1);
+        }
+
+        public ComplexityModel getModel() {
+            return model;
+        }
+
+        /**
+         * Returns the constant {@code a} of {@code a + b*f(n)}, or the factor {@code a} of the power law {@code a*n^k}.
+         */
+        public double getConstant() {
+            return constant;
+        }
+
+        /**
+         * Returns the coefficient {@code b} of {@code a + b*f(n)}, or the exponent {@code k} of the power law {@code a*n^k}.
+         */
+        public double getCoefficient() {
+            return coefficient;
+        }
+
+        public double getRSquared() {
+            return rSquared;
+        }
+
+        public double getAdjustedRSquared() {
+            return adjustedRSquared;
+        }
+
+        public double predict(double n) {
+            switch (model) {
+                case Constant:
+                    return constant;
+                case PowerLaw:
+                    return constant * Math.pow(n, coefficient);
+                default:
+                    return constant + coefficient * model.apply(n);
+            }
+        }
+
+        public String getFormula() {
+            switch (model) {
+                case Constant:
+                    return String.format("%.4g", constant);
+                case PowerLaw:
+                    return String.format("%.4g*n^%.3f", constant, coefficient);
+                default:
+                    return String.format("%.4g + %.4g*%s", constant, coefficient, model.term);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s R²=%.4f", model.notation, getFormula(), rSquared);
+        }
+    }
+
+    public static class InflectionPoint {
+        private final double argument;
+        private final double slopeBefore;
+        private final double slopeAfter;
+
+        InflectionPoint(double argument, double slopeBefore, double slopeAfter) {
+            this.argument = argument;
+            this.slopeBefore = slopeBefore;
+            this.slopeAfter = slopeAfter;
+        }
+
+        /**
+         * Returns the first argument measured with the new slope.
+         */
+        public double getArgument() {
+            return argument;
+        }
+
+        /**
+         * Returns the log-log slope (local exponent) before the inflection point.
+         */
+        public double getSlopeBefore() {
+            return slopeBefore;
+        }
+
+        /**
+         * Returns the log-log slope (local exponent) after the inflection point.
+         */
+        public double getSlopeAfter() {
+            return slopeAfter;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%s slope %.2f -> %.2f", formatArgument(argument), slopeBefore, slopeAfter);
+        }
+    }
+
+    static String formatArgument(double argument) {
+        if (argument == Math.rint(argument) && Math.abs(argument) < 1e15) {
+            return String.valueOf((long) argument);
+        }
+        return String.valueOf(argument);
+    }
+}
@@ -0,0 +1,38 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+public enum ComplexityModel {
+    Constant("O(1)", ""),
+    Logarithmic("O(log n)", "log(n)"),
+    Linear("O(n)", "n"),
+    Linearithmic("O(n log n)", "n*log(n)"),
+    Quadratic("O(n^2)", "n^2"),
+    PowerLaw("O(n^k)", "n^k");
+
+    public final String notation;
+    public final String term;
+
+    ComplexityModel(String notation, String term) {
+        this.notation = notation;
+        this.term = term;
+    }
+
+    /**
+     * Returns the growth function of the model, the power law has no fixed growth function.
+     */
+    public double apply(double n) {
+        switch (this) {
+            case Constant:
+                return 1;
+            case Logarithmic:
+                return Math.log(n);
+            case Linear:
+                return n;
+            case Linearithmic:
+                return n * Math.log(n);
+            case Quadratic:
+                return n * n;
+            default:
+                throw new UnsupportedOperationException("No fixed growth function for " + this);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+public enum GarbageCollectionSamples {
+    Keep,
+    Discard,
+    Rerun
+}
@@ -0,0 +1,153 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds.
+ *
+ * Values below 128 are counted exactly,
+ * larger values are counted in 128 linear sub-buckets per power of two (relative error below 1%).
+ * The memory is fixed and recording a value does not allocate.
+ */
+public class LatencyHistogram {
+
+    public static final double[] REPORTED_PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = 64 - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[BUCKET_COUNT * SUB_BUCKET_COUNT];
+    private long totalCount;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue = 0;
+
+    public void recordValue(long nanos) {
+        recordValues(nanos, 1);
+    }
+
+    public void recordValues(long nanos, long count) {
+        if (count <= 0) {
+            return;
+        }
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[indexOf(nanos)] += count;
+        totalCount += count;
+        if (nanos < minValue) {
+            minValue = nanos;
+        }
+        if (nanos > maxValue) {
+            maxValue = nanos;
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMinValue() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= targetCount) {
+                return Math.min(maxValue, Math.max(minValue, representativeValueOf(i)));
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Returns the representative values of all non-empty buckets in ascending order.
+     *
+     * Recording every value with the count at the same index in {@link #getBucketCounts()} reproduces this histogram.
+     */
+    public long[] getBucketValues() {
+        long[] result = new long[getBucketCount()];
+        int resultIndex = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                result[resultIndex++] = representativeValueOf(i);
+            }
+        }
+        if (result.length > 0) {
+            // min and max are in the first and last bucket, reproducing the histogram keeps them (max only for a single bucket)
+            result[0] = minValue;
+            result[result.length - 1] = maxValue;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the counts of all non-empty buckets in the order of {@link #getBucketValues()}.
+     */
+    public long[] getBucketCounts() {
+        long[] result = new long[getBucketCount()];
+        int resultIndex = 0;
+        for (long count : counts) {
+            if (count != 0) {
+                result[resultIndex++] = count;
+            }
+        }
+        return result;
+    }
+
+    private int getBucketCount() {
+        int result = 0;
+        for (long count : counts) {
+            if (count != 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long representativeValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long lowerValue = (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerValue + ((1L << shift) >> 1);
+    }
+}
@@ -0,0 +1,6 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+public enum MeasurementOrder {
+    Sequential,
+    Interleaved
+}
@@ -0,0 +1,215 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Statistics of the measured samples of a single benchmark point.
+ *
+ * The confidence intervals are calculated with the percentile bootstrap,
+ * outliers are counted with the median absolute deviation (MAD) and Tukey fences.
+ */
+public class Statistics {
+
+    public static final double CONFIDENCE_LEVEL = 0.95;
+
+    private static final int BOOTSTRAP_RESAMPLES = 1000;
+    private static final long BOOTSTRAP_SEED = 1234567;
+
+    private static final double MAD_SCALE = 1.4826;
+    private static final double MAD_OUTLIER_THRESHOLD = 3.0;
+    private static final double TUKEY_FENCE = 1.5;
+
+    private final double[] samples;
+    private final double[] sortedSamples;
+    private final double result;
+
+    private final double mean;
+    private final double median;
+    private final double standardDeviation;
+    private final double meanConfidenceLower;
+    private final double meanConfidenceUpper;
+    private final double medianConfidenceLower;
+    private final double medianConfidenceUpper;
+    private final int madOutlierCount;
+    private final int tukeyOutlierCount;
+
+    /**
+     * @param samples the measured samples
+     * @param result the representative value calculated by the result calculator
+     */
+    public Statistics(double[] samples, double result) {
+        this.samples = samples.clone();
+        this.sortedSamples = samples.clone();
+        Arrays.sort(sortedSamples);
+        this.result = result;
+
+        int n = sortedSamples.length;
+        mean = mean(sortedSamples);
+        median = percentile(sortedSamples, 50);
+
+        double sumDiffSquare = 0;
+        for (double value : sortedSamples) {
+            double diff = value - mean;
+            sumDiffSquare += diff*diff;
+        }
+        standardDeviation = n > 1 ? Math.sqrt(sumDiffSquare / (n - 1)) : 0;
+
+        double[] bootstrapMeans = new double[BOOTSTRAP_RESAMPLES];
+        double[] bootstrapMedians = new double[BOOTSTRAP_RESAMPLES];
+        if (n > 0) {
+            Random random = new Random(BOOTSTRAP_SEED);
+            double[] resample = new double[n];
+            for (int i = 0; i < BOOTSTRAP_RESAMPLES; i++) {
+                for (int j = 0; j < n; j++) {
+                    resample[j] = sortedSamples[random.nextInt(n)];
+                }
+                Arrays.sort(resample);
+                bootstrapMeans[i] = mean(resample);
+                bootstrapMedians[i] = percentile(resample, 50);
+            }
+            Arrays.sort(bootstrapMeans);
+            Arrays.sort(bootstrapMedians);
+        }
+        double tail = (1.0 - CONFIDENCE_LEVEL) / 2 * 100;
+        meanConfidenceLower = percentile(bootstrapMeans, tail);
+        meanConfidenceUpper = percentile(bootstrapMeans, 100 - tail);
+        medianConfidenceLower = percentile(bootstrapMedians, tail);
+        medianConfidenceUpper = percentile(bootstrapMedians, 100 - tail);
+
+        double[] deviations = new double[n];
+        for (int i = 0; i < n; i++) {
+            deviations[i] = Math.abs(sortedSamples[i] - median);
+        }
+        Arrays.sort(deviations);
+        double mad = percentile(deviations, 50) * MAD_SCALE;
+
+        double q1 = percentile(sortedSamples, 25);
+        double q3 = percentile(sortedSamples, 75);
+        double iqr = q3 - q1;
+
+        int madCount = 0;
+        int tukeyCount = 0;
+        for (double value : sortedSamples) {
+            if (mad > 0 && Math.abs(value - median) > MAD_OUTLIER_THRESHOLD * mad) {
+                madCount++;
+            }
+            if (value < q1 - TUKEY_FENCE * iqr || value > q3 + TUKEY_FENCE * iqr) {
+                tukeyCount++;
+            }
+        }
+        madOutlierCount = madCount;
+        tukeyOutlierCount = tukeyCount;
+    }
+
+    /**
+     * Returns the measured samples in the order they were measured.
+     */
+    public double[] getSamples() {
+        return samples.clone();
+    }
+
+    /**
+     * Returns the measured samples in ascending order.
+     */
+    public double[] getSortedSamples() {
+        return sortedSamples.clone();
+    }
+
+    public int getCount() {
+        return samples.length;
+    }
+
+    /**
+     * Returns the representative value calculated by the configured result calculator.
+     */
+    public double getResult() {
+        return result;
+    }
+
+    public double getMin() {
+        return sortedSamples.length == 0 ? 0 : sortedSamples[0];
+    }
+
+    public double getMax() {
+        return sortedSamples.length == 0 ? 0 : sortedSamples[sortedSamples.length - 1];
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    public double getMeanConfidenceLower() {
+        return meanConfidenceLower;
+    }
+
+    public double getMeanConfidenceUpper() {
+        return meanConfidenceUpper;
+    }
+
+    public double getMedianConfidenceLower() {
+        return medianConfidenceLower;
+    }
+
+    public double getMedianConfidenceUpper() {
+        return medianConfidenceUpper;
+    }
+
+    /**
+     * Returns the half width of the confidence interval of the mean relative to the mean.
+     */
+    public double getRelativeError() {
+        if (mean == 0) {
+            return 0;
+        }
+        return (meanConfidenceUpper - meanConfidenceLower) / 2 / Math.abs(mean);
+    }
+
+    public int getMadOutlierCount() {
+        return madOutlierCount;
+    }
+
+    public int getTukeyOutlierCount() {
+        return tukeyOutlierCount;
+    }
+
+    /**
+     * Compares these statistics against the statistics of a baseline benchmark.
+     */
+    public StatisticsComparison compare(Statistics baseline) {
+        return new StatisticsComparison(this, baseline);
+    }
+
+    static double mean(double[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    static double percentile(double[] sortedValues, double percentile) {
+        int n = sortedValues.length;
+        if (n == 0) {
+            return 0;
+        }
+        double position = percentile / 100 * (n - 1);
+        int index = (int) Math.floor(position);
+        if (index >= n - 1) {
+            return sortedValues[n - 1];
+        }
+        double fraction = position - index;
+        return sortedValues[index] + fraction * (sortedValues[index + 1] - sortedValues[index]);
+    }
+}
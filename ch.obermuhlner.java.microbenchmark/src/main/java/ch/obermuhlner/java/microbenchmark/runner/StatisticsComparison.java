@@ -0,0 +1,199 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+/**
+ * Compares the samples of a benchmark against the samples of a baseline benchmark.
+ *
+ * The difference is significant if the two-sided Mann-Whitney U test rejects equal distributions.
+ * The Welch t-test is reported as well, but assumes normally distributed samples which is rarely the case for timings.
+ */
+public class StatisticsComparison {
+
+    public static final double SIGNIFICANCE_LEVEL = 0.05;
+
+    private final double speedup;
+    private final double mannWhitneyPValue;
+    private final double welchPValue;
+
+    StatisticsComparison(Statistics statistics, Statistics baseline) {
+        speedup = statistics.getResult() == 0 ? Double.NaN : baseline.getResult() / statistics.getResult();
+        mannWhitneyPValue = mannWhitneyPValue(statistics.getSortedSamples(), baseline.getSortedSamples());
+        welchPValue = welchPValue(statistics, baseline);
+    }
+
+    /**
+     * Returns how many times faster the benchmark is than the baseline (values below 1 are slower).
+     */
+    public double getSpeedup() {
+        return speedup;
+    }
+
+    public double getMannWhitneyPValue() {
+        return mannWhitneyPValue;
+    }
+
+    public double getWelchPValue() {
+        return welchPValue;
+    }
+
+    public boolean isSignificant() {
+        return mannWhitneyPValue < SIGNIFICANCE_LEVEL;
+    }
+
+    private static double mannWhitneyPValue(double[] sortedSamples1, double[] sortedSamples2) {
+        int n1 = sortedSamples1.length;
+        int n2 = sortedSamples2.length;
+        if (n1 == 0 || n2 == 0) {
+            return 1.0;
+        }
+
+        // merge the sorted samples and assign average ranks to ties
+        int n = n1 + n2;
+        double[] values = new double[n];
+        boolean[] first = new boolean[n];
+        int i1 = 0;
+        int i2 = 0;
+        for (int i = 0; i < n; i++) {
+            if (i2 >= n2 || (i1 < n1 && sortedSamples1[i1] <= sortedSamples2[i2])) {
+                values[i] = sortedSamples1[i1++];
+                first[i] = true;
+            } else {
+                values[i] = sortedSamples2[i2++];
+            }
+        }
+
+        double rankSum1 = 0;
+        double tieCorrection = 0;
+        int i = 0;
+        while (i < n) {
+            int j = i;
+            while (j + 1 < n && values[j + 1] == values[i]) {
+                j++;
+            }
+            double rank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (first[k]) {
+                    rankSum1 += rank;
+                }
+            }
+            int ties = j - i + 1;
+            tieCorrection += (double) ties * ties * ties - ties;
+            i = j + 1;
+        }
+
+        double u1 = rankSum1 - n1 * (n1 + 1) / 2.0;
+        double meanU = n1 * (double) n2 / 2;
+        double varianceU = n1 * (double) n2 / 12 * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+        if (varianceU <= 0) {
+            return 1.0;
+        }
+
+        // normal approximation with continuity correction
+        double z = (Math.abs(u1 - meanU) - 0.5) / Math.sqrt(varianceU);
+        if (z <= 0) {
+            return 1.0;
+        }
+        return Math.min(1.0, 2 * (1 - normalCdf(z)));
+    }
+
+    private static double welchPValue(Statistics statistics1, Statistics statistics2) {
+        int n1 = statistics1.getCount();
+        int n2 = statistics2.getCount();
+        if (n1 < 2 || n2 < 2) {
+            return 1.0;
+        }
+
+        double variance1 = statistics1.getStandardDeviation() * statistics1.getStandardDeviation() / n1;
+        double variance2 = statistics2.getStandardDeviation() * statistics2.getStandardDeviation() / n2;
+        double standardError = Math.sqrt(variance1 + variance2);
+        if (standardError == 0) {
+            return statistics1.getMean() == statistics2.getMean() ? 1.0 : 0.0;
+        }
+
+        double t = (statistics1.getMean() - statistics2.getMean()) / standardError;
+        double degreesOfFreedom = (variance1 + variance2) * (variance1 + variance2) /
+                (variance1 * variance1 / (n1 - 1) + variance2 * variance2 / (n2 - 1));
+
+        // two-sided p-value of the student t distribution
+        return regularizedIncompleteBeta(degreesOfFreedom / (degreesOfFreedom + t * t), degreesOfFreedom / 2, 0.5);
+    }
+
+    private static double normalCdf(double x) {
+        return 0.5 * (1 + erf(x / Math.sqrt(2)));
+    }
+
+    private static double erf(double x) {
+        // Abramowitz and Stegun 7.1.26, maximum error 1.5e-7
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        return x >= 0 ? y : -y;
+    }
+
+    private static double regularizedIncompleteBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * incompleteBetaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * incompleteBetaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double incompleteBetaContinuedFraction(double x, double a, double b) {
+        final double tiny = 1e-30;
+        final double epsilon = 1e-12;
+
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        if (Math.abs(d) < tiny) {
+            d = tiny;
+        }
+        d = 1 / d;
+        double result = d;
+
+        for (int m = 1; m <= 200; m++) {
+            int m2 = 2 * m;
+            double numerator = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + numerator * d;
+            d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+            c = 1 + numerator / c;
+            if (Math.abs(c) < tiny) {
+                c = tiny;
+            }
+            result *= d * c;
+
+            numerator = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + numerator * d;
+            d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+            c = 1 + numerator / c;
+            if (Math.abs(c) < tiny) {
+                c = tiny;
+            }
+            double delta = d * c;
+            result *= delta;
+            if (Math.abs(delta - 1) < epsilon) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static double logGamma(double x) {
+        // Lanczos approximation
+        double[] coefficients = {
+                76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5 };
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
@@ -0,0 +1,6 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+@FunctionalInterface
+public interface TriConsumer<T1, T2, T3> {
+    void accept(T1 argument1, T2 argument2, T3 argument3);
+}
@@ -0,0 +1,194 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * A block of memory of a specific size whose cache lines are linked to each other in a {@link WorkingSetLayout}.
+ *
+ * Every cache line stores the position of the next cache line, so that {@link #chase(int)} touches exactly one
+ * cache line per step and every load depends on the previous one.
+ * The memory is either an on-heap {@code int[]} or an off-heap direct {@link ByteBuffer}.
+ *
+ * The memory is allocated on first use.
+ * If the working sets together would need more than half of the maximum heap size,
+ * the working sets allocated first release their memory again.
+ * The benchmark runners allocate working set arguments before every measurement iteration,
+ * so that the allocation is not part of the measured time.
+ *
+ * The {@link #toString()} starts with the size in bytes followed by the cache level the working set fits in,
+ * for example {@code "32768 (L1)"}.
+ */
+public class WorkingSet {
+    static final int CACHE_LINE_BYTES = 64;
+    private static final int INT_BYTES = 4;
+    private static final int STRIDE_BYTES = 4096;
+    private static final long RANDOM_SEED = 1234;
+
+    private static final long MEMORY_BUDGET_BYTES = Runtime.getRuntime().maxMemory() / 2;
+
+    private static final Deque<WorkingSet> allocatedWorkingSets = new ArrayDeque<>();
+    private static long allocatedBytes;
+
+    private final int bytes;
+    private final WorkingSetLayout layout;
+    private final boolean offHeap;
+    private final String cacheLevel;
+
+    private volatile int[] array;
+    private volatile ByteBuffer buffer;
+    private int position;
+
+    WorkingSet(int bytes, WorkingSetLayout layout, boolean offHeap) {
+        if (bytes < CACHE_LINE_BYTES || bytes % CACHE_LINE_BYTES != 0) {
+            throw new RuntimeException("Working set size must be a positive multiple of " + CACHE_LINE_BYTES + " bytes: " + bytes);
+        }
+        this.bytes = bytes;
+        this.layout = layout;
+        this.offHeap = offHeap;
+        this.cacheLevel = CacheHierarchy.getInstance().getCacheLevel(bytes);
+    }
+
+    public int getBytes() {
+        return bytes;
+    }
+
+    public WorkingSetLayout getLayout() {
+        return layout;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Returns the smallest cache level this working set fits in, for example {@code "L2"} or {@code "DRAM"}.
+     */
+    public String getCacheLevel() {
+        return cacheLevel;
+    }
+
+    public int getCacheLineCount() {
+        return bytes / CACHE_LINE_BYTES;
+    }
+
+    /**
+     * Follows the specified number of links between cache lines, continuing where the last chase stopped.
+     *
+     * @return the position of the last cache line, to be consumed by the benchmark
+     */
+    public int chase(int steps) {
+        int p = position;
+        int[] a = array;
+        ByteBuffer b = buffer;
+        if (a == null && b == null) {
+            allocate();
+            a = array;
+            b = buffer;
+            p = position;
+        }
+
+        if (a != null) {
+            for (int i = 0; i < steps; i++) {
+                p = a[p];
+            }
+        } else {
+            for (int i = 0; i < steps; i++) {
+                p = b.getInt(p);
+            }
+        }
+        position = p;
+        return p;
+    }
+
+    /**
+     * Follows the links through all cache lines once.
+     *
+     * @return the position of the last cache line, to be consumed by the benchmark
+     */
+    public int traverse() {
+        return chase(getCacheLineCount());
+    }
+
+    /**
+     * Allocates the memory of this working set, unless it is already allocated.
+     */
+    public synchronized void allocate() {
+        if (array != null || buffer != null) {
+            return;
+        }
+        synchronized (WorkingSet.class) {
+            while (!allocatedWorkingSets.isEmpty() && allocatedBytes + bytes > MEMORY_BUDGET_BYTES) {
+                WorkingSet oldest = allocatedWorkingSets.removeFirst();
+                allocatedBytes -= oldest.bytes;
+                oldest.release();
+            }
+            allocatedWorkingSets.addLast(this);
+            allocatedBytes += bytes;
+        }
+
+        int[] order = createOrder(getCacheLineCount(), layout);
+        if (offHeap) {
+            ByteBuffer newBuffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+            for (int i = 0; i < order.length; i++) {
+                newBuffer.putInt(order[i] * CACHE_LINE_BYTES, order[(i + 1) % order.length] * CACHE_LINE_BYTES);
+            }
+            position = order[0] * CACHE_LINE_BYTES;
+            buffer = newBuffer;
+        } else {
+            int intsPerCacheLine = CACHE_LINE_BYTES / INT_BYTES;
+            int[] newArray = new int[bytes / INT_BYTES];
+            for (int i = 0; i < order.length; i++) {
+                newArray[order[i] * intsPerCacheLine] = order[(i + 1) % order.length] * intsPerCacheLine;
+            }
+            position = order[0] * intsPerCacheLine;
+            array = newArray;
+        }
+    }
+
+    private synchronized void release() {
+        array = null;
+        buffer = null;
+    }
+
+    private static int[] createOrder(int cacheLineCount, WorkingSetLayout layout) {
+        int[] order = new int[cacheLineCount];
+        switch (layout) {
+            case Sequential:
+                for (int i = 0; i < cacheLineCount; i++) {
+                    order[i] = i;
+                }
+                break;
+            case Strided:
+                int stride = STRIDE_BYTES / CACHE_LINE_BYTES;
+                int index = 0;
+                for (int offset = 0; offset < stride; offset++) {
+                    for (int cacheLine = offset; cacheLine < cacheLineCount; cacheLine += stride) {
+                        order[index++] = cacheLine;
+                    }
+                }
+                break;
+            case RandomChase:
+                for (int i = 0; i < cacheLineCount; i++) {
+                    order[i] = i;
+                }
+                Random random = new Random(RANDOM_SEED);
+                for (int i = cacheLineCount - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                }
+                break;
+        }
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return bytes + " (" + cacheLevel + ")";
+    }
+}
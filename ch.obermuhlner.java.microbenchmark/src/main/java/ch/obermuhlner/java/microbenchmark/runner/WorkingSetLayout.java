@@ -0,0 +1,19 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+/**
+ * The order in which a {@link WorkingSet} links its cache lines.
+ */
+public enum WorkingSetLayout {
+    /**
+     * Every cache line points to the next one, which the hardware prefetcher predicts perfectly.
+     */
+    Sequential,
+    /**
+     * Every cache line points to the cache line one page further, wrapping around to the next offset at the end.
+     */
+    Strided,
+    /**
+     * The cache lines are linked in a single random cycle, so that every access is a dependent cache miss.
+     */
+    RandomChase
+}
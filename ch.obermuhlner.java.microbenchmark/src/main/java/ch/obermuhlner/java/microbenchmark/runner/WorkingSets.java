@@ -0,0 +1,86 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Generates working sets whose sizes span the detected {@link CacheHierarchy},
+ * to be used as arguments of {@link BenchmarkBuilder#forArguments(List)}.
+ *
+ * The sizes grow in geometric steps from a quarter of the L1 cache to twice the last level cache,
+ * with additional sizes just below and above the size of every cache level, where the performance falls off.
+ */
+public class WorkingSets {
+    private static final double STEP_FACTOR = 2.0;
+    private static final double[] BOUNDARY_FACTORS = { 0.75, 0.9, 1.0, 1.1, 1.25 };
+    private static final long MIN_BYTES_DIVISOR = 4;
+    private static final long MAX_BYTES_FACTOR = 2;
+
+    public static List<Integer> sizes() {
+        CacheHierarchy cacheHierarchy = CacheHierarchy.getInstance();
+        return sizes(cacheHierarchy.getCacheBytes(1) / MIN_BYTES_DIVISOR, cacheHierarchy.getLastLevelCacheBytes() * MAX_BYTES_FACTOR);
+    }
+
+    /**
+     * Returns the working set sizes in bytes between the specified limits, rounded to whole cache lines.
+     */
+    public static List<Integer> sizes(long minBytes, long maxBytes) {
+        maxBytes = Math.min(maxBytes, Integer.MAX_VALUE);
+        if (maxBytes < minBytes || maxBytes < WorkingSet.CACHE_LINE_BYTES) {
+            throw new RuntimeException("Working set size range is empty: " + minBytes + " to " + maxBytes);
+        }
+
+        TreeSet<Integer> sizes = new TreeSet<>();
+        for (double size = Math.max(minBytes, WorkingSet.CACHE_LINE_BYTES); size <= maxBytes; size *= STEP_FACTOR) {
+            sizes.add(toCacheLines(size));
+        }
+        sizes.add(toCacheLines(maxBytes));
+
+        CacheHierarchy cacheHierarchy = CacheHierarchy.getInstance();
+        for (int level = 1; level <= cacheHierarchy.getLevelCount(); level++) {
+            for (double boundaryFactor : BOUNDARY_FACTORS) {
+                double size = cacheHierarchy.getCacheBytes(level) * boundaryFactor;
+                if (size >= minBytes && size <= maxBytes) {
+                    sizes.add(toCacheLines(size));
+                }
+            }
+        }
+        return new ArrayList<>(sizes);
+    }
+
+    public static List<WorkingSet> arrays(WorkingSetLayout layout) {
+        return arrays(layout, sizes());
+    }
+
+    /**
+     * Returns working sets backed by on-heap {@code int[]} arrays.
+     */
+    public static List<WorkingSet> arrays(WorkingSetLayout layout, List<Integer> sizes) {
+        return create(layout, sizes, false);
+    }
+
+    public static List<WorkingSet> buffers(WorkingSetLayout layout) {
+        return buffers(layout, sizes());
+    }
+
+    /**
+     * Returns working sets backed by off-heap direct {@link java.nio.ByteBuffer}s.
+     */
+    public static List<WorkingSet> buffers(WorkingSetLayout layout, List<Integer> sizes) {
+        return create(layout, sizes, true);
+    }
+
+    private static List<WorkingSet> create(WorkingSetLayout layout, List<Integer> sizes, boolean offHeap) {
+        List<WorkingSet> workingSets = new ArrayList<>();
+        for (int size : sizes) {
+            workingSets.add(new WorkingSet(size, layout, offHeap));
+        }
+        return workingSets;
+    }
+
+    private static int toCacheLines(double bytes) {
+        long cacheLines = Math.max(1, (long) (bytes / WorkingSet.CACHE_LINE_BYTES));
+        return (int) Math.min(cacheLines * WorkingSet.CACHE_LINE_BYTES, Integer.MAX_VALUE / WorkingSet.CACHE_LINE_BYTES * WorkingSet.CACHE_LINE_BYTES);
+    }
+}
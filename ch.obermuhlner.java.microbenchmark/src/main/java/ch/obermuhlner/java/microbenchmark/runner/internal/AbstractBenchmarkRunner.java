@@ -1,17 +1,251 @@
 package ch.obermuhlner.java.microbenchmark.runner.internal;
 
+import ch.obermuhlner.java.microbenchmark.annotation.Level;
+import ch.obermuhlner.java.microbenchmark.printer.ResultPrinter;
+import ch.obermuhlner.java.microbenchmark.runner.Arguments;
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import ch.obermuhlner.java.microbenchmark.runner.CacheEviction;
+import ch.obermuhlner.java.microbenchmark.runner.GarbageCollectionSamples;
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.MeasurementOrder;
+import ch.obermuhlner.java.microbenchmark.runner.ResultCalculators;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
 import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+import ch.obermuhlner.java.microbenchmark.runner.WorkingSet;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class AbstractBenchmarkRunner {
     protected final BenchmarkConfig config;
 
+    private int threadCount = 1;
+    private ThreadPoolExecutor benchmarkThreads;
+
+    private PointMetrics metrics = new PointMetrics();
+    private LatencyHistogram[] threadLatencyHistograms = new LatencyHistogram[0];
+    private boolean recordLatencies;
+
+    private AllocationCounter allocationCounter;
+    private long allocationCalibrationBytes;
+    private boolean countAllocations;
+
+    private static final int MAX_GARBAGE_COLLECTION_RERUNS = 10;
+    private GarbageCollectionMonitor garbageCollectionMonitor;
+    private boolean lastBatchDiscarded;
+
+    private static final double WARMUP_BATCH_NANOS = 1_000_000;
+    // invocations before C2 compiles a method with default tiered compilation thresholds
+    private static final int ADAPTIVE_WARMUP_MIN_COUNT = 10_000;
+    private final CompilationMonitor compilationMonitor = new CompilationMonitor();
+
+    private static final double MIN_BATCH_TIMER_GRANULARITY_FACTOR = 1000;
+    private static final int HARNESS_OVERHEAD_REPEAT = 100_000;
+    private static final int HARNESS_OVERHEAD_RUNS = 20;
+    private static Double harnessOverheadNanos;
+
+    private static final double TIME_BUDGET_PILOT_FRACTION = 0.2;
+    private double pointPrecision = Double.NaN;
+    private double pointSecondsToTargetPrecision = Double.NaN;
+    private double pointDrift = Double.NaN;
+    private double pointColdResult = Double.NaN;
+
     public AbstractBenchmarkRunner(BenchmarkConfig config) {
         this.config = config;
     }
 
+    protected void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    protected List<String> toThreadArgumentNames(List<String> argumentNames) {
+        int[] threadCounts = config.getThreadCounts();
+        if (threadCounts.length == 1) {
+            return argumentNames;
+        }
+
+        List<String> result = new ArrayList<>();
+        for (String argumentName : argumentNames) {
+            for (int threadCount : threadCounts) {
+                result.add(argumentName + " threads=" + threadCount);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Binds the snippet to the arguments, including the iteration and invocation hooks.
+     */
+    protected SnippetLoop bindSnippet(BenchmarkSnippet snippet, Object... arguments) {
+        return withHooks(bindBlackhole(blackhole -> snippet.bind(blackhole, arguments)), arguments);
+    }
+
+    /**
+     * Binds the snippet to a blackhole, with multiple benchmark threads every thread gets its own blackhole.
+     */
+    protected SnippetLoop bindBlackhole(Function<Blackhole, SnippetLoop> binder) {
+        if (isMultiThreaded()) {
+            return new ThreadSnippetLoop(config.blackhole, binder);
+        }
+        return binder.apply(config.blackhole);
+    }
+
+    private boolean isMultiThreaded() {
+        for (int threadCount : config.getThreadCounts()) {
+            if (threadCount > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected SnippetLoop withHooks(SnippetLoop snippetLoop, Object... arguments) {
+        return withHooks(snippetLoop, new Arguments(arguments), Collections.emptyList(), Collections.emptyList());
+    }
+
+    private SnippetLoop withHooks(SnippetLoop snippetLoop, Arguments hookArguments, List<Runnable> iterationEvictions, List<Runnable> invocationEvictions) {
+        List<Runnable> iterationSetups = bindHooks(config.getSetupHooks(Level.Iteration), hookArguments);
+        iterationSetups.addAll(allocateWorkingSets(hookArguments));
+        iterationSetups.addAll(iterationEvictions);
+        List<Runnable> iterationTearDowns = bindHooks(config.getTearDownHooks(Level.Iteration), hookArguments);
+        List<Runnable> invocationSetups = bindHooks(config.getSetupHooks(Level.Invocation), hookArguments);
+        invocationSetups.addAll(invocationEvictions);
+        List<Runnable> invocationTearDowns = bindHooks(config.getTearDownHooks(Level.Invocation), hookArguments);
+        if ((!invocationSetups.isEmpty() || !invocationTearDowns.isEmpty()) && isMultiThreaded()) {
+            throw new RuntimeException("Invocation hooks cannot be used with multiple benchmark threads");
+        }
+        if (iterationSetups.isEmpty() && iterationTearDowns.isEmpty() && invocationSetups.isEmpty() && invocationTearDowns.isEmpty()) {
+            return snippetLoop;
+        }
+        return new HookedSnippetLoop(snippetLoop, iterationSetups, iterationTearDowns, invocationSetups, invocationTearDowns);
+    }
+
+    /**
+     * Returns setup hooks that allocate the working set arguments, so that a working set released
+     * by a later working set is not allocated again in the measured time.
+     */
+    private static List<Runnable> allocateWorkingSets(Arguments arguments) {
+        List<Runnable> result = new ArrayList<>();
+        for (int i = 0; i < arguments.size(); i++) {
+            Object argument = arguments.get(i);
+            if (argument instanceof WorkingSet) {
+                result.add(((WorkingSet) argument)::allocate);
+            }
+        }
+        return result;
+    }
+
+    private static List<Runnable> bindHooks(List<Consumer<Arguments>> hooks, Arguments arguments) {
+        List<Runnable> result = new ArrayList<>();
+        for (Consumer<Arguments> hook : hooks) {
+            result.add(() -> hook.accept(arguments));
+        }
+        return result;
+    }
+
+    /**
+     * Measures the snippet with evicted caches, if configured, before the hot measurement of the same point.
+     * The cold result is reported next to the hot result by {@link #printPointMetrics(String, String, double)}.
+     *
+     * The caches are evicted by the setup hooks of every batch or invocation, so the eviction is not measured.
+     * With several argument copies every invocation uses the next copy of the arguments.
+     *
+     * @param binder binds the snippet without hooks to the specified arguments
+     */
+    protected void measureColdCache(WarmupInfo warmupInfo, Function<Object[], SnippetLoop> binder, Object... arguments) {
+        pointColdResult = Double.NaN;
+        if (config.getCacheEviction() == CacheEviction.None) {
+            return;
+        }
+        if (isMultiThreaded()) {
+            // the benchmark threads would share the argument copies and evict each other's caches
+            throw new RuntimeException("Caches cannot be evicted with multiple benchmark threads");
+        }
+
+        SnippetLoop[] snippetLoops = new SnippetLoop[Math.max(1, config.getArgumentCopies())];
+        snippetLoops[0] = binder.apply(arguments);
+        for (int i = 1; i < snippetLoops.length; i++) {
+            snippetLoops[i] = binder.apply(copyArguments(arguments));
+        }
+        SnippetLoop snippetLoop = snippetLoops.length == 1 ? snippetLoops[0] : new RotatingSnippetLoop(snippetLoops);
+
+        CacheEvictor cacheEvictor = CacheEvictor.getInstance(config.getCacheEvictionBytes());
+        config.resultPrinter.printInfoValue("cacheEvictionBytes", (int) cacheEvictor.bufferBytes);
+        config.resultPrinter.printInfoValue("cacheEvictionTime", convertToTimeUnit(cacheEvictor.evictionNanos));
+
+        List<Runnable> evictions = Collections.singletonList(cacheEvictor::evict);
+        boolean evictInvocations = config.getCacheEviction() == CacheEviction.Invocation;
+        SnippetLoop coldSnippetLoop = withHooks(snippetLoop, new Arguments(arguments),
+                evictInvocations ? Collections.emptyList() : evictions,
+                evictInvocations ? evictions : Collections.emptyList());
+
+        // the eviction of every invocation is not measured but still has to fit into the allocated measure time
+        double invocationNanos = warmupInfo.warmupTime;
+        if (evictInvocations) {
+            invocationNanos += cacheEvictor.evictionNanos;
+        }
+        double allocatedMeasureNanos = Math.max(TimeUnit.Seconds.toNanoSeconds(config.getAllocatedMeasureSeconds()), invocationNanos * config.runCount);
+        double[] results = measure(coldSnippetLoop, 0, warmupInfo.warmupCount, invocationNanos, allocatedMeasureNanos);
+        pointColdResult = calculateResult(results);
+    }
+
+    private Object[] copyArguments(Object[] arguments) {
+        Object[] copies = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            copies[i] = copyArgument(arguments[i]);
+        }
+        return copies;
+    }
+
+    private Object copyArgument(Object argument) {
+        if (config.getArgumentCopier() != null) {
+            return config.getArgumentCopier().apply(argument);
+        }
+        if (argument == null || argument instanceof Number || argument instanceof String || argument instanceof Boolean || argument instanceof Character || argument instanceof Enum) {
+            return argument;
+        }
+        if (argument.getClass().isArray()) {
+            int length = Array.getLength(argument);
+            Object copy = Array.newInstance(argument.getClass().getComponentType(), length);
+            System.arraycopy(argument, 0, copy, 0, length);
+            return copy;
+        }
+        if (argument instanceof List) {
+            return new ArrayList<>((List<?>) argument);
+        }
+        throw new RuntimeException("Cannot copy argument of " + argument.getClass() + ", specify an argument copier");
+    }
+
+    /**
+     * Runs the measurement between the trial setup and tear down hooks.
+     */
+    protected void runTrial(Runnable measurement) {
+        for (Consumer<Arguments> hook : config.getSetupHooks(Level.Trial)) {
+            hook.accept(new Arguments());
+        }
+        try {
+            measurement.run();
+        } finally {
+            shutdownBenchmarkThreads();
+            for (Consumer<Arguments> hook : config.getTearDownHooks(Level.Trial)) {
+                hook.accept(new Arguments());
+            }
+        }
+    }
+
     protected WarmupInfo preWarmup(Runnable snippet) {
         if (config.getPreWarmupCount() > 0) {
             double preWarmupTime = measureNanoseconds(snippet, config.getPreWarmupCount());
@@ -23,28 +257,106 @@ public class AbstractBenchmarkRunner {
 
     protected WarmupInfo warmup(Runnable snippet) {
         double firstTime = measureNanosecondsWithTimeout(snippet, 1);
-        if (config.isMeasureFirstTimeOnly() || firstTime >= TimeUnit.Seconds.toNanoSeconds(config.getAllocatedMeasureSeconds())) {
-            return new WarmupInfo(1, firstTime);
+        if (config.isMeasureFirstTimeOnly()) {
+            return new WarmupInfo(1, firstTime, firstTime, WarmupStopReason.FirstTimeOnly);
+        }
+        if (firstTime >= TimeUnit.Seconds.toNanoSeconds(config.getAllocatedMeasureSeconds())) {
+            return new WarmupInfo(1, firstTime, firstTime, WarmupStopReason.SlowSnippet);
+        }
+
+        if (config.isAdaptiveWarmup()) {
+            return adaptiveWarmup(snippet, firstTime);
         }
 
         double warmupSpentTime = firstTime;
         int warmupCount = 1;
-        while (warmupSpentTime < TimeUnit.Seconds.toNanoSeconds(config.getAllocatedWarmupSeconds()) && warmupCount >= config.getMinWarmupCount() && warmupCount < config.getMinWarmupCount()) {
+        while ((warmupSpentTime < TimeUnit.Seconds.toNanoSeconds(config.getAllocatedWarmupSeconds()) || warmupCount < config.getMinWarmupCount()) && warmupCount < config.getMaxWarmupCount()) {
             double warmupTime = measureNanoseconds(snippet, 1);
             warmupSpentTime += warmupTime;
             warmupCount++;
         }
 
+        WarmupStopReason stopReason = warmupCount >= config.getMaxWarmupCount() ? WarmupStopReason.WarmupCount : WarmupStopReason.WarmupTime;
         double warmupAverageTime = warmupSpentTime / warmupCount;
-        return new WarmupInfo(warmupCount, warmupAverageTime);
+        return new WarmupInfo(warmupCount, warmupAverageTime, warmupSpentTime, stopReason);
+    }
+
+    private WarmupInfo adaptiveWarmup(Runnable snippet, double firstTime) {
+        double allocatedWarmupNanos = TimeUnit.Seconds.toNanoSeconds(config.getAllocatedWarmupSeconds());
+        int windowSize = Math.max(2, config.getWarmupWindowSize());
+        int batchCount = (int) Math.max(1, Math.min(config.getMaxWarmupCount(), WARMUP_BATCH_NANOS / Math.max(1, firstTime)));
+
+        double[] windowTimes = new double[windowSize];
+        long[] windowCompilationMillis = new long[windowSize];
+
+        double warmupSpentTime = firstTime;
+        int warmupCount = 1;
+        int batchIndex = 0;
+        WarmupStopReason stopReason;
+        while (true) {
+            if (warmupSpentTime >= allocatedWarmupNanos && warmupCount >= config.getMinWarmupCount()) {
+                stopReason = WarmupStopReason.WarmupTime;
+                break;
+            }
+            if (warmupCount >= config.getMaxWarmupCount()) {
+                stopReason = WarmupStopReason.WarmupCount;
+                break;
+            }
+
+            double batchTime = measureNanoseconds(snippet, batchCount);
+            warmupSpentTime += batchTime * batchCount;
+            warmupCount += batchCount;
+
+            windowTimes[batchIndex % windowSize] = batchTime;
+            windowCompilationMillis[batchIndex % windowSize] = compilationMonitor.getTotalCompilationMillis();
+            batchIndex++;
+
+            if (batchIndex >= windowSize && warmupCount >= Math.max(config.getMinWarmupCount(), ADAPTIVE_WARMUP_MIN_COUNT)) {
+                long oldestCompilationMillis = windowCompilationMillis[batchIndex % windowSize];
+                long newestCompilationMillis = windowCompilationMillis[(batchIndex - 1) % windowSize];
+                boolean compilationStopped = oldestCompilationMillis == newestCompilationMillis;
+                if (compilationStopped && coefficientOfVariation(windowTimes) < config.getWarmupConvergenceThreshold()) {
+                    stopReason = WarmupStopReason.Converged;
+                    break;
+                }
+            }
+        }
+
+        double warmupAverageTime;
+        if (batchIndex >= windowSize) {
+            warmupAverageTime = ResultCalculators.AVERAGE.apply(windowTimes);
+        } else {
+            warmupAverageTime = warmupSpentTime / warmupCount;
+        }
+        return new WarmupInfo(warmupCount, warmupAverageTime, warmupSpentTime, stopReason);
+    }
+
+    private static double coefficientOfVariation(double[] values) {
+        double average = ResultCalculators.AVERAGE.apply(values);
+        if (average == 0) {
+            return 0;
+        }
+        return Math.sqrt(variance(values, average)) / average;
+    }
+
+    protected double[] measure(Runnable snippet, int preWarmupCount, WarmupInfo warmupInfo) {
+        if (warmupInfo.stopReason != WarmupStopReason.None) {
+            config.resultPrinter.printInfoValue("warmupSpentTime", convertToTimeUnit(warmupInfo.warmupSpentTime));
+            config.resultPrinter.printInfoValue("warmupStopReason", warmupInfo.stopReason.name());
+        }
+        return measure(snippet, preWarmupCount, warmupInfo.warmupCount, warmupInfo.warmupTime);
     }
 
     protected double[] measure(Runnable snippet, int preWarmupCount, int warmupCount, double warmupTime) {
+        return measure(snippet, preWarmupCount, warmupCount, warmupTime, TimeUnit.Seconds.toNanoSeconds(config.getAllocatedMeasureSeconds()));
+    }
+
+    private double[] measure(Runnable snippet, int preWarmupCount, int warmupCount, double warmupTime, double allocatedMeasureNanos) {
         if (preWarmupCount > 0) {
             config.resultPrinter.printInfoValue("preWarmupCount", preWarmupCount);
         }
 
-        if (config.isMeasureFirstTimeOnly() || (config.getMinMeasureCount() == 1 && warmupTime >= TimeUnit.Seconds.toNanoSeconds(config.getAllocatedMeasureSeconds()))) {
+        if (config.isMeasureFirstTimeOnly() || (config.getMinMeasureCount() == 1 && warmupTime >= allocatedMeasureNanos)) {
             config.resultPrinter.printInfoValue("warmupCount", 0);
             config.resultPrinter.printInfoValue("warmupTime", 0);
             config.resultPrinter.printInfoValue("runCountTime", 1);
@@ -57,34 +369,551 @@ public class AbstractBenchmarkRunner {
         if (warmupTime == 0) {
             measurementCount = config.getMaxWarmupCount();
         } else {
-            measurementCount = (int) (TimeUnit.Seconds.toNanoSeconds(config.getAllocatedMeasureSeconds()) / warmupTime);
+            measurementCount = (int) (allocatedMeasureNanos / warmupTime);
         }
         measurementCount = Math.max(config.getMinMeasureCount(), measurementCount);
         measurementCount = Math.min(config.getMaxMeasureCount(), measurementCount);
 
+        metrics.reset();
+        if (threadCount > 1) {
+            config.resultPrinter.printInfoValue("threads", threadCount);
+        }
+        recordLatencies = config.getLatencySampleInterval() > 0;
+        startAllocationCounting();
+        startGarbageCollectionCounting();
+
+        TimerCalibration timerCalibration = TimerCalibration.getInstance();
+        config.resultPrinter.printInfoValue("timerGranularity", convertToTimeUnit(timerCalibration.granularityNanos));
+        config.resultPrinter.printInfoValue("timerLatency", convertToTimeUnit(timerCalibration.latencyNanos));
+        config.resultPrinter.printInfoValue("harnessOverhead", convertToTimeUnit(getHarnessOverheadNanos()));
+        if (snippet instanceof HookedSnippetLoop && ((HookedSnippetLoop) snippet).hasInvocationHooks()) {
+            // every invocation is measured with its own pair of timestamps
+            config.resultPrinter.printInfoValue("invocationTimerOverhead", convertToTimeUnit(timerCalibration.latencyNanos));
+        }
+
+        int minBatchCount = getMinBatchCount(timerCalibration, warmupTime);
         if (measurementCount >= config.runCount) {
+            List<Double> keptMeasurements = new ArrayList<>();
             double[] measurements = new double[config.runCount];
-            int singleMeasurementCount = measurementCount / config.runCount;
+            int singleMeasurementCount = Math.max(measurementCount / config.runCount, minBatchCount);
             config.resultPrinter.printInfoValue("warmupCount", warmupCount);
             config.resultPrinter.printInfoValue("warmupTime", warmupTime);
             config.resultPrinter.printInfoValue("runCountTime", config.runCount);
             config.resultPrinter.printInfoValue("measurementCount", singleMeasurementCount);
             for (int i = 0; i < config.runCount; i++) {
-                measurements[i] = convertToTimeUnit(measureNanoseconds(snippet, singleMeasurementCount));
-                sleep();
+                measurements[i] = convertToTimeUnit(measureBatch(snippet, singleMeasurementCount));
+                if (!lastBatchDiscarded) {
+                    keptMeasurements.add(measurements[i]);
+                }
+                pauseBetweenRuns();
+            }
+            finishMeasurement();
+            if (keptMeasurements.isEmpty() || keptMeasurements.size() == measurements.length) {
+                return measurements;
             }
-            return measurements;
+            return keptMeasurements.stream().mapToDouble(Double::doubleValue).toArray();
         } else {
             config.resultPrinter.printInfoValue("warmupCount", warmupCount);
             config.resultPrinter.printInfoValue("warmupTime", warmupTime);
             config.resultPrinter.printInfoValue("runCountTime", 1);
+            measurementCount = Math.max(measurementCount, minBatchCount);
             config.resultPrinter.printInfoValue("measurementCount", measurementCount);
-            double[] measurement = new double[] { convertToTimeUnit(measureNanoseconds(snippet, measurementCount)) };
-            sleep();
+            double[] measurement = new double[] { convertToTimeUnit(measureBatch(snippet, measurementCount)) };
+            pauseBetweenRuns();
+            finishMeasurement();
             return measurement;
         }
     }
 
+    /**
+     * Spreads the total measure time over all points.
+     *
+     * A pilot pass measures every point with a fraction of the budget,
+     * the remaining budget is given in chunks to the point with the widest relative confidence interval
+     * until all points reached the target precision or the budget is used up.
+     * While the budget is spread the allocated measure time (and therefore the default warmup and sleep time)
+     * is the average share of a point.
+     * The metrics (latency percentiles, allocations, garbage collections and throughput) of all chunks of a point are merged
+     * and reported with the point.
+     * The points are identified by {@code benchmarkIndex + pointIndex * benchmarkCount}.
+     */
+    protected void measureWithTimeBudget(int benchmarkCount, int pointCount, PointSnippetFactory snippetFactory, PointResultConsumer resultConsumer) {
+        int count = benchmarkCount * pointCount;
+        double allocatedMeasureSeconds = config.getAllocatedMeasureSeconds();
+        config.setAllocatedMeasureSeconds(config.getTotalMeasureSeconds() / count);
+        try {
+            measureWithTimeBudget(benchmarkCount, pointCount, count, snippetFactory, resultConsumer);
+        } finally {
+            config.setAllocatedMeasureSeconds(allocatedMeasureSeconds);
+        }
+    }
+
+    private void measureWithTimeBudget(int benchmarkCount, int pointCount, int count, PointSnippetFactory snippetFactory, PointResultConsumer resultConsumer) {
+        long startNanos = System.nanoTime();
+        double budgetNanos = TimeUnit.Seconds.toNanoSeconds(config.getTotalMeasureSeconds());
+        double targetPrecision = config.getTargetPrecision();
+
+        WarmupInfo[] warmupInfos = new WarmupInfo[count];
+        double[][] samples = new double[count][];
+        double[] measureNanos = new double[count];
+        double[] precisions = new double[count];
+        PointMetrics[] pointMetrics = new PointMetrics[count];
+
+        double pilotNanos = budgetNanos * TIME_BUDGET_PILOT_FRACTION / count;
+        for (int i = 0; i < count; i++) {
+            Runnable snippet = snippetFactory.create(i % benchmarkCount, i / benchmarkCount);
+            warmupInfos[i] = warmup(snippet);
+            long measureStartNanos = System.nanoTime();
+            samples[i] = measure(snippet, config.getPreWarmupCount(), warmupInfos[i].warmupCount, warmupInfos[i].warmupTime, pilotNanos);
+            measureNanos[i] = System.nanoTime() - measureStartNanos;
+            precisions[i] = getPrecision(samples[i]);
+            pointMetrics[i] = new PointMetrics();
+            pointMetrics[i].add(metrics);
+        }
+
+        while (true) {
+            double remainingNanos = budgetNanos - (System.nanoTime() - startNanos);
+            int worst = -1;
+            int imprecisePointCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (precisions[i] > targetPrecision) {
+                    imprecisePointCount++;
+                    if (worst < 0 || precisions[i] > precisions[worst]) {
+                        worst = i;
+                    }
+                }
+            }
+            if (worst < 0 || remainingNanos <= 0) {
+                break;
+            }
+
+            double neededNanos = predictNanosToTargetPrecision(measureNanos[worst], precisions[worst], targetPrecision);
+            double chunkNanos = Math.min(remainingNanos, Math.max(pilotNanos, Math.min(neededNanos, remainingNanos / imprecisePointCount)));
+            Runnable snippet = snippetFactory.create(worst % benchmarkCount, worst / benchmarkCount);
+            long measureStartNanos = System.nanoTime();
+            double[] chunkSamples = measure(snippet, 0, warmupInfos[worst].warmupCount, warmupInfos[worst].warmupTime, chunkNanos);
+            measureNanos[worst] += System.nanoTime() - measureStartNanos;
+            pointMetrics[worst].add(metrics);
+
+            double[] merged = Arrays.copyOf(samples[worst], samples[worst].length + chunkSamples.length);
+            System.arraycopy(chunkSamples, 0, merged, samples[worst].length, chunkSamples.length);
+            samples[worst] = merged;
+            precisions[worst] = getPrecision(merged);
+        }
+        config.resultPrinter.printInfoValue("timeBudgetSpent", (System.nanoTime() - startNanos) / 1_000_000_000.0);
+
+        for (int benchmarkIndex = 0; benchmarkIndex < benchmarkCount; benchmarkIndex++) {
+            for (int pointIndex = 0; pointIndex < pointCount; pointIndex++) {
+                int i = benchmarkIndex + pointIndex * benchmarkCount;
+                pointPrecision = precisions[i];
+                pointSecondsToTargetPrecision = predictNanosToTargetPrecision(measureNanos[i], precisions[i], targetPrecision) / 1_000_000_000.0;
+                metrics = pointMetrics[i];
+                resultConsumer.accept(benchmarkIndex, pointIndex, samples[i]);
+            }
+        }
+        pointPrecision = Double.NaN;
+        pointSecondsToTargetPrecision = Double.NaN;
+        metrics = new PointMetrics();
+    }
+
+    /**
+     * Returns the relative error of the samples, a single sample has no known precision and is treated as infinitely imprecise.
+     */
+    private static double getPrecision(double[] samples) {
+        if (samples.length < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return new Statistics(samples, 0).getRelativeError();
+    }
+
+    /**
+     * Predicts the additional measure time to reach the target precision,
+     * assuming that the width of the confidence interval shrinks with the square root of the measure time.
+     */
+    private static double predictNanosToTargetPrecision(double measureNanos, double precision, double targetPrecision) {
+        if (precision <= targetPrecision) {
+            return 0;
+        }
+        double ratio = precision / targetPrecision;
+        return measureNanos * (ratio * ratio - 1);
+    }
+
+    protected boolean isMeasureInterleaved() {
+        return config.getMeasurementOrder() == MeasurementOrder.Interleaved && !config.isMeasureFirstTimeOnly();
+    }
+
+    /**
+     * Measures all benchmarks of a point interleaved.
+     *
+     * The benchmarks of a point are warmed up right before the point is measured,
+     * afterwards every round measures one batch of every benchmark in a seeded random order,
+     * so that a drift of the machine speed affects all benchmarks of the point equally.
+     * The drift is reported for every point as the relative change of the linear trend over all rounds.
+     * Every benchmark accumulates its own metrics, batches discarded because of a garbage collection are not reported.
+     */
+    protected void measureInterleaved(int benchmarkCount, int pointCount, PointSnippetFactory snippetFactory, PointResultConsumer resultConsumer) {
+        Random random = new Random(config.getMeasurementOrderSeed());
+        TimerCalibration timerCalibration = TimerCalibration.getInstance();
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < benchmarkCount; i++) {
+            order.add(i);
+        }
+
+        for (int pointIndex = 0; pointIndex < pointCount; pointIndex++) {
+            Runnable[] snippets = new Runnable[benchmarkCount];
+            int[] batchCounts = new int[benchmarkCount];
+            PointMetrics[] benchmarkMetrics = new PointMetrics[benchmarkCount];
+            for (int i = 0; i < benchmarkCount; i++) {
+                snippets[i] = snippetFactory.create(i, pointIndex);
+                WarmupInfo warmupInfo = warmup(snippets[i]);
+                batchCounts[i] = getInterleavedBatchCount(timerCalibration, warmupInfo);
+                benchmarkMetrics[i] = new PointMetrics();
+            }
+
+            recordLatencies = config.getLatencySampleInterval() > 0;
+            startAllocationCounting();
+            startGarbageCollectionCounting();
+            double[][] samples = new double[benchmarkCount][config.runCount];
+            boolean[][] discarded = new boolean[benchmarkCount][config.runCount];
+            for (int round = 0; round < config.runCount; round++) {
+                Collections.shuffle(order, random);
+                for (int i : order) {
+                    // every benchmark accumulates its own metrics
+                    metrics = benchmarkMetrics[i];
+                    samples[i][round] = convertToTimeUnit(measureBatch(snippets[i], batchCounts[i]));
+                    discarded[i][round] = lastBatchDiscarded;
+                    pauseBetweenRuns();
+                }
+            }
+
+            for (int i = 0; i < benchmarkCount; i++) {
+                metrics = benchmarkMetrics[i];
+                config.resultPrinter.printInfoValue("runCount", config.runCount);
+                config.resultPrinter.printInfoValue("measurementCount", batchCounts[i]);
+                finishMeasurement();
+                double[] keptSamples = getKeptSamples(samples[i], discarded[i]);
+                pointDrift = drift(keptSamples);
+                resultConsumer.accept(i, pointIndex, keptSamples);
+            }
+            metrics = new PointMetrics();
+        }
+        pointDrift = Double.NaN;
+    }
+
+    /**
+     * Returns the samples of the batches that were not discarded, all samples if every batch was discarded.
+     */
+    private static double[] getKeptSamples(double[] samples, boolean[] discarded) {
+        double[] keptSamples = new double[samples.length];
+        int count = 0;
+        for (int i = 0; i < samples.length; i++) {
+            if (!discarded[i]) {
+                keptSamples[count++] = samples[i];
+            }
+        }
+        if (count == 0) {
+            return samples;
+        }
+        return Arrays.copyOf(keptSamples, count);
+    }
+
+    private int getInterleavedBatchCount(TimerCalibration timerCalibration, WarmupInfo warmupInfo) {
+        int measurementCount;
+        if (warmupInfo.warmupTime == 0) {
+            measurementCount = config.getMaxWarmupCount();
+        } else {
+            measurementCount = (int) (TimeUnit.Seconds.toNanoSeconds(config.getAllocatedMeasureSeconds()) / warmupInfo.warmupTime);
+        }
+        measurementCount = Math.max(config.getMinMeasureCount(), measurementCount);
+        measurementCount = Math.min(config.getMaxMeasureCount(), measurementCount);
+        return Math.max(measurementCount / config.runCount, getMinBatchCount(timerCalibration, warmupInfo.warmupTime));
+    }
+
+    /**
+     * Returns the change of the linear trend over all samples relative to the mean of the samples.
+     */
+    static double drift(double[] samples) {
+        int n = samples.length;
+        if (n < 2) {
+            return 0;
+        }
+        double meanX = (n - 1) / 2.0;
+        double meanY = Arrays.stream(samples).average().orElse(0);
+        double sumXX = 0;
+        double sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            sumXX += (i - meanX) * (i - meanX);
+            sumXY += (i - meanX) * (samples[i] - meanY);
+        }
+        if (meanY == 0) {
+            return 0;
+        }
+        return sumXY / sumXX * (n - 1) / meanY;
+    }
+
+    protected void runForked(int runIndex, int benchmarkCount, int pointCount, PointResultConsumer resultConsumer) {
+        if (config.getTotalMeasureSeconds() > 0) {
+            throw new RuntimeException("A total measure time cannot be spread over forked JVMs");
+        }
+        if (isMeasureInterleaved()) {
+            throw new RuntimeException("Benchmarks in forked JVMs cannot be measured interleaved");
+        }
+
+        List<List<double[]>> forkResults = new ArrayList<>();
+        for (int i = 0; i < benchmarkCount * pointCount; i++) {
+            forkResults.add(new ArrayList<>());
+        }
+        PointResultConsumer forkResultCollector = (benchmarkIndex, pointIndex, results) ->
+                forkResults.get(benchmarkIndex + pointIndex * benchmarkCount).add(results);
+
+        ForkedBenchmarkExecutor executor = new ForkedBenchmarkExecutor(config, runIndex);
+        for (int benchmarkIndex = 0; benchmarkIndex < benchmarkCount; benchmarkIndex++) {
+            for (int fork = 0; fork < config.getForkCount(); fork++) {
+                if (config.isForkEachArgument()) {
+                    for (int pointIndex = 0; pointIndex < pointCount; pointIndex++) {
+                        executor.fork(benchmarkIndex, pointIndex, forkResultCollector);
+                    }
+                } else {
+                    executor.fork(benchmarkIndex, -1, forkResultCollector);
+                }
+            }
+        }
+
+        for (int benchmarkIndex = 0; benchmarkIndex < benchmarkCount; benchmarkIndex++) {
+            for (int pointIndex = 0; pointIndex < pointCount; pointIndex++) {
+                List<double[]> results = forkResults.get(benchmarkIndex + pointIndex * benchmarkCount);
+                resultConsumer.accept(benchmarkIndex, pointIndex, mergeForkResults(results));
+            }
+        }
+    }
+
+    private double[] mergeForkResults(List<double[]> forkResults) {
+        int n = 0;
+        double sumForkAverages = 0;
+        double sumWithinVariance = 0;
+        double[] forkAverages = new double[forkResults.size()];
+        for (int fork = 0; fork < forkResults.size(); fork++) {
+            double[] results = forkResults.get(fork);
+            n += results.length;
+            forkAverages[fork] = ResultCalculators.AVERAGE.apply(results);
+            sumForkAverages += forkAverages[fork];
+            sumWithinVariance += variance(results, forkAverages[fork]);
+        }
+
+        double[] merged = new double[n];
+        int index = 0;
+        for (double[] results : forkResults) {
+            System.arraycopy(results, 0, merged, index, results.length);
+            index += results.length;
+        }
+
+        int forkCount = forkResults.size();
+        if (forkCount > 0) {
+            config.resultPrinter.printInfoValue("forks", forkCount);
+            config.resultPrinter.printInfoValue("withinForkStddev", Math.sqrt(sumWithinVariance / forkCount));
+            config.resultPrinter.printInfoValue("betweenForkStddev", Math.sqrt(variance(forkAverages, sumForkAverages / forkCount)));
+        }
+        return merged;
+    }
+
+    private static double variance(double[] values, double average) {
+        if (values.length < 2) {
+            return 0;
+        }
+
+        double sumDiffSquare = 0;
+        for (double value : values) {
+            double diff = value - average;
+            sumDiffSquare += diff*diff;
+        }
+        return sumDiffSquare / (values.length - 1);
+    }
+
+    private void finishMeasurement() {
+        recordLatencies = false;
+        countAllocations = false;
+        if (metrics.allocationOperations > 0) {
+            config.resultPrinter.printInfoValue("allocatedBytesPerOperation", getAllocatedBytesPerOperation());
+        }
+        if (metrics.garbageCollectionOperations > 0) {
+            config.resultPrinter.printInfoValue("gcCount", (int) metrics.garbageCollectionCount);
+            config.resultPrinter.printInfoValue("gcTimePerOperation", getGarbageCollectionTimePerOperation());
+            config.resultPrinter.printInfoValue("discardedSamples", metrics.discardedSampleCount);
+        }
+    }
+
+    private int getMinBatchCount(TimerCalibration timerCalibration, double warmupTime) {
+        double minBatchNanos = timerCalibration.granularityNanos * MIN_BATCH_TIMER_GRANULARITY_FACTOR;
+        double invocationNanos = Math.max(warmupTime, getHarnessOverheadNanos());
+        if (invocationNanos <= 0) {
+            return 1;
+        }
+        return (int) Math.max(1, Math.min(config.getMaxMeasureCount(), Math.ceil(minBatchNanos / invocationNanos)));
+    }
+
+    protected double getHarnessOverheadNanos() {
+        if (harnessOverheadNanos == null) {
+            // a truly empty snippet would be eliminated together with the loop
+            Consumer<Blackhole> minimalSnippet = blackhole -> blackhole.consume(0);
+            Runnable emptySnippet = new BenchmarkSnippet(SnippetLoop.CONSUMER, minimalSnippet, true).bind(config.blackhole);
+            double minNanos = Double.MAX_VALUE;
+            for (int i = 0; i < HARNESS_OVERHEAD_RUNS; i++) {
+                long startNanos = System.nanoTime();
+                runSnippet(emptySnippet, HARNESS_OVERHEAD_REPEAT, null);
+                long endNanos = System.nanoTime();
+                minNanos = Math.min(minNanos, (double) (endNanos - startNanos) / HARNESS_OVERHEAD_REPEAT);
+            }
+            harnessOverheadNanos = minNanos;
+        }
+        return harnessOverheadNanos;
+    }
+
+    /**
+     * Applies the result calculator to a copy of the results, because calculators may sort the values in place.
+     */
+    protected double calculateResult(double[] results) {
+        return config.resultCalculator.apply(results.clone());
+    }
+
+    protected double correctHarnessOverhead(double result) {
+        return Math.max(0, result - convertToTimeUnit(getHarnessOverheadNanos()));
+    }
+
+    protected void printPointMetrics(String name, String argument, double result) {
+        printPointMetrics(config.resultPrinter, name, argument, result);
+    }
+
+    protected void printPointMetrics(ResultPrinter resultPrinter, String name, String argument, double result) {
+        if (!Double.isNaN(pointPrecision)) {
+            resultPrinter.printMetric(name, argument, "precision %", pointPrecision * 100);
+            resultPrinter.printMetric(name, argument, "seconds to target", pointSecondsToTargetPrecision);
+        }
+        if (!Double.isNaN(pointColdResult)) {
+            resultPrinter.printMetric(name, argument, "cold", pointColdResult);
+            resultPrinter.printMetric(name, argument, "cold/hot", pointColdResult / result);
+        }
+        if (!Double.isNaN(pointDrift)) {
+            resultPrinter.printMetric(name, argument, "drift %", pointDrift * 100);
+        }
+        if (config.isCorrectHarnessOverhead()) {
+            resultPrinter.printMetric(name, argument, "corrected", correctHarnessOverhead(result));
+        }
+        if (metrics.throughputNanos > 0 && (threadCount > 1 || config.getThreadCounts().length > 1)) {
+            resultPrinter.printMetric(name, argument, "ops/s", metrics.throughputOperations * 1_000_000_000.0 / metrics.throughputNanos);
+        }
+        if (metrics.latencyHistogram.getTotalCount() > 0) {
+            resultPrinter.printLatencyPercentiles(name, argument, metrics.latencyHistogram);
+        }
+        if (metrics.allocationOperations > 0) {
+            resultPrinter.printMetric(name, argument, "bytes/op", getAllocatedBytesPerOperation());
+        }
+        if (metrics.garbageCollectionOperations > 0 && config.isMeasureGarbageCollections()) {
+            resultPrinter.printMetric(name, argument, "gc count", metrics.garbageCollectionCount);
+            resultPrinter.printMetric(name, argument, "gc time/op", getGarbageCollectionTimePerOperation());
+            resultPrinter.printMetric(name, argument, "discarded", metrics.discardedSampleCount);
+        }
+    }
+
+    private void startGarbageCollectionCounting() {
+        if (garbageCollectionMonitor == null) {
+            garbageCollectionMonitor = new GarbageCollectionMonitor();
+        }
+    }
+
+    /**
+     * Measures a batch, the garbage collections are only counted around the invocations and not around the iteration hooks.
+     */
+    private double measureBatch(Runnable snippet, int repeat) {
+        int attempt = 0;
+        while (true) {
+            double nanos;
+            long collectionCount;
+            long collectionMillis;
+            setupIteration(snippet);
+            try {
+                long collectionCountBefore = garbageCollectionMonitor.getCollectionCount();
+                long collectionMillisBefore = garbageCollectionMonitor.getCollectionMillis();
+                nanos = measureIterationNanoseconds(snippet, repeat);
+                collectionCount = garbageCollectionMonitor.getCollectionCount() - collectionCountBefore;
+                collectionMillis = garbageCollectionMonitor.getCollectionMillis() - collectionMillisBefore;
+            } finally {
+                tearDownIteration(snippet);
+            }
+
+            metrics.garbageCollectionCount += collectionCount;
+            metrics.garbageCollectionMillis += collectionMillis;
+            metrics.garbageCollectionOperations += repeat;
+            lastBatchDiscarded = false;
+
+            if (collectionCount == 0) {
+                return nanos;
+            }
+
+            GarbageCollectionSamples garbageCollectionSamples = config.getGarbageCollectionSamples();
+            if (garbageCollectionSamples == GarbageCollectionSamples.Discard) {
+                metrics.discardedSampleCount++;
+                lastBatchDiscarded = true;
+                return nanos;
+            }
+            if (garbageCollectionSamples != GarbageCollectionSamples.Rerun || attempt >= MAX_GARBAGE_COLLECTION_RERUNS) {
+                return nanos;
+            }
+
+            metrics.discardedSampleCount++;
+            attempt++;
+            pauseBetweenRuns();
+        }
+    }
+
+    private double getGarbageCollectionTimePerOperation() {
+        return convertToTimeUnit(metrics.garbageCollectionMillis * 1_000_000.0 / metrics.garbageCollectionOperations);
+    }
+
+    private void pauseBetweenRuns() {
+        if (config.isGarbageCollectBetweenRuns()) {
+            garbageCollectionMonitor.collectUntilStable();
+        } else {
+            sleep();
+        }
+    }
+
+    private void startAllocationCounting() {
+        countAllocations = false;
+        if (!config.isMeasureAllocations()) {
+            return;
+        }
+
+        if (allocationCounter == null) {
+            allocationCounter = AllocationCounter.create();
+            allocationCalibrationBytes = calibrateAllocations();
+        }
+        countAllocations = true;
+    }
+
+    private long calibrateAllocations() {
+        Runnable emptySnippet = () -> {};
+        long minBytes = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long startBytes = allocationCounter.getCurrentThreadAllocatedBytes();
+            runSnippet(emptySnippet, 1000, null);
+            long endBytes = allocationCounter.getCurrentThreadAllocatedBytes();
+            minBytes = Math.min(minBytes, endBytes - startBytes);
+        }
+        return minBytes;
+    }
+
+    /**
+     * Adds the allocated bytes without the calibrated allocations of every pair of allocation counter calls.
+     */
+    private void addAllocatedBytes(long bytes, int operations, int counterCalls) {
+        metrics.allocatedBytes += Math.max(0, bytes - allocationCalibrationBytes * counterCalls);
+        metrics.allocationOperations += operations;
+    }
+
+    private double getAllocatedBytesPerOperation() {
+        return (double) metrics.allocatedBytes / metrics.allocationOperations;
+    }
+
     private void sleep() {
         long millis = (long) (config.getAllocatedSleepSeconds() * 1000);
         try {
@@ -118,30 +947,265 @@ public class AbstractBenchmarkRunner {
     }
 
     protected double measureNanoseconds(Runnable snippet, int repeat) {
+        setupIteration(snippet);
+        try {
+            return measureIterationNanoseconds(snippet, repeat);
+        } finally {
+            tearDownIteration(snippet);
+        }
+    }
+
+    private static void setupIteration(Runnable snippet) {
+        if (snippet instanceof HookedSnippetLoop) {
+            ((HookedSnippetLoop) snippet).setupIteration();
+        }
+    }
+
+    private static void tearDownIteration(Runnable snippet) {
+        if (snippet instanceof HookedSnippetLoop) {
+            ((HookedSnippetLoop) snippet).tearDownIteration();
+        }
+    }
+
+    private double measureIterationNanoseconds(Runnable snippet, int repeat) {
+        if (threadCount > 1) {
+            return measureNanosecondsMultiThreaded(snippet, repeat, threadCount);
+        }
+
+        AllocationCounter allocationCounter = countAllocations ? this.allocationCounter : null;
+        long nanos;
+        if (snippet instanceof HookedSnippetLoop) {
+            // the allocations of the invocation hooks are not counted
+            HookedSnippetLoop hookedSnippet = (HookedSnippetLoop) snippet;
+            nanos = hookedSnippet.runTimed(repeat, recordLatencies ? metrics.latencyHistogram : null, config.getLatencySampleInterval(), allocationCounter);
+            if (allocationCounter != null) {
+                addAllocatedBytes(hookedSnippet.getAllocatedBytes(), repeat, hookedSnippet.hasInvocationHooks() ? repeat : 1);
+            }
+        } else {
+            long startBytes = allocationCounter != null ? allocationCounter.getCurrentThreadAllocatedBytes() : 0;
+            nanos = runSnippet(snippet, repeat, recordLatencies ? metrics.latencyHistogram : null);
+            if (allocationCounter != null) {
+                addAllocatedBytes(allocationCounter.getCurrentThreadAllocatedBytes() - startBytes, repeat, 1);
+            }
+        }
+        metrics.throughputOperations += repeat;
+        metrics.throughputNanos += nanos;
+        return (double) nanos / repeat;
+    }
+
+    /**
+     * Runs the snippet and returns the nanoseconds spent in the snippet.
+     */
+    private long runSnippet(Runnable snippet, int repeat, LatencyHistogram histogram) {
+        if (snippet instanceof HookedSnippetLoop) {
+            return ((HookedSnippetLoop) snippet).runTimed(repeat, histogram, config.getLatencySampleInterval());
+        }
+
         long startNanos = System.nanoTime();
+        runUntimedSnippet(snippet, repeat, histogram);
+        return System.nanoTime() - startNanos;
+    }
+
+    private void runUntimedSnippet(Runnable snippet, int repeat, LatencyHistogram histogram) {
+        if (snippet instanceof SnippetLoop) {
+            SnippetLoop snippetLoop = (SnippetLoop) snippet;
+            if (histogram == null) {
+                snippetLoop.run(repeat);
+            } else {
+                snippetLoop.run(repeat, histogram, config.getLatencySampleInterval());
+            }
+            return;
+        }
+
+        if (histogram == null) {
+            for (int i = 0; i < repeat; i++) {
+                try {
+                    snippet.run();
+                } catch (Exception ex) {
+                    // ignore
+                }
+            }
+            return;
+        }
+
+        int sampleInterval = config.getLatencySampleInterval();
+        int untilSample = 0;
         for (int i = 0; i < repeat; i++) {
-            try {
-                snippet.run();
-            } catch (Exception ex) {
-                // ignore
+            if (untilSample == 0) {
+                untilSample = sampleInterval;
+                long invocationStartNanos = System.nanoTime();
+                try {
+                    snippet.run();
+                } catch (Exception ex) {
+                    // ignore
+                }
+                histogram.recordValue(System.nanoTime() - invocationStartNanos);
+            } else {
+                try {
+                    snippet.run();
+                } catch (Exception ex) {
+                    // ignore
+                }
+            }
+            untilSample--;
+        }
+    }
+
+    private double measureNanosecondsMultiThreaded(Runnable snippet, int repeat, int threads) {
+        PaddedCounters startNanos = new PaddedCounters(threads);
+        PaddedCounters endNanos = new PaddedCounters(threads);
+        PaddedCounters snippetNanos = new PaddedCounters(threads);
+        CyclicBarrier startBarrier = new CyclicBarrier(threads);
+        CountDownLatch finishedLatch = new CountDownLatch(threads);
+        LatencyHistogram[] histograms = recordLatencies ? getThreadLatencyHistograms(threads) : new LatencyHistogram[threads];
+        AllocationCounter allocationCounter = countAllocations ? this.allocationCounter : null;
+        PaddedCounters threadAllocatedBytes = new PaddedCounters(threads);
+
+        Runnable[] threadSnippets = new Runnable[threads];
+        for (int t = 0; t < threads; t++) {
+            threadSnippets[t] = getThreadSnippet(snippet, t);
+        }
+
+        ThreadPoolExecutor workers = getBenchmarkThreads(threads);
+        for (int t = 0; t < threads; t++) {
+            int threadIndex = t;
+            workers.execute(() -> {
+                try {
+                    startBarrier.await();
+                    long threadStartBytes = allocationCounter != null ? allocationCounter.getCurrentThreadAllocatedBytes() : 0;
+                    long threadStartNanos = System.nanoTime();
+                    long threadSnippetNanos = runSnippet(threadSnippets[threadIndex], repeat, histograms[threadIndex]);
+                    long threadEndNanos = System.nanoTime();
+                    if (allocationCounter != null) {
+                        threadAllocatedBytes.set(threadIndex, allocationCounter.getCurrentThreadAllocatedBytes() - threadStartBytes);
+                    }
+                    startNanos.set(threadIndex, threadStartNanos);
+                    endNanos.set(threadIndex, threadEndNanos);
+                    snippetNanos.set(threadIndex, threadSnippetNanos);
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    startNanos.set(threadIndex, 0);
+                    endNanos.set(threadIndex, -1);
+                } finally {
+                    finishedLatch.countDown();
+                }
+            });
+        }
+
+        try {
+            finishedLatch.await();
+        } catch (InterruptedException e) {
+            shutdownBenchmarkThreads();
+            throw new RuntimeException("Interrupted");
+        }
+
+        long firstStartNanos = Long.MAX_VALUE;
+        long lastEndNanos = Long.MIN_VALUE;
+        double sumThreadNanos = 0;
+        for (int t = 0; t < threads; t++) {
+            if (endNanos.get(t) < startNanos.get(t)) {
+                throw new RuntimeException("Benchmark thread " + t + " was interrupted");
+            }
+            firstStartNanos = Math.min(firstStartNanos, startNanos.get(t));
+            lastEndNanos = Math.max(lastEndNanos, endNanos.get(t));
+            sumThreadNanos += snippetNanos.get(t);
+        }
+
+        if (allocationCounter != null) {
+            for (int t = 0; t < threads; t++) {
+                addAllocatedBytes(threadAllocatedBytes.get(t), repeat, 1);
+            }
+        }
+
+        if (recordLatencies) {
+            for (int t = 0; t < threads; t++) {
+                metrics.latencyHistogram.add(histograms[t]);
+                histograms[t].reset();
+            }
+        }
+
+        metrics.throughputOperations += (long) threads * repeat;
+        metrics.throughputNanos += lastEndNanos - firstStartNanos;
+
+        return sumThreadNanos / threads / repeat;
+    }
+
+    /**
+     * Returns the snippet run by the benchmark thread.
+     * The iteration hooks are run by the measuring thread and invocation hooks are rejected with multiple benchmark threads,
+     * so the benchmark threads run the snippet without hooks.
+     */
+    private static Runnable getThreadSnippet(Runnable snippet, int threadIndex) {
+        Runnable threadSnippet = snippet;
+        if (snippet instanceof HookedSnippetLoop) {
+            threadSnippet = ((HookedSnippetLoop) snippet).getSnippetLoop();
+        }
+        if (threadSnippet instanceof ThreadSnippetLoop) {
+            return ((ThreadSnippetLoop) threadSnippet).getThreadSnippetLoop(threadIndex);
+        }
+        return threadSnippet;
+    }
+
+    /**
+     * Returns the started benchmark threads, which are reused by all measurements with the same thread count.
+     */
+    private ThreadPoolExecutor getBenchmarkThreads(int threads) {
+        if (benchmarkThreads == null || benchmarkThreads.getCorePoolSize() != threads) {
+            shutdownBenchmarkThreads();
+            AtomicInteger threadIndex = new AtomicInteger();
+            benchmarkThreads = new ThreadPoolExecutor(threads, threads, 0, java.util.concurrent.TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "benchmark-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            benchmarkThreads.prestartAllCoreThreads();
+        }
+        return benchmarkThreads;
+    }
+
+    private void shutdownBenchmarkThreads() {
+        if (benchmarkThreads != null) {
+            benchmarkThreads.shutdownNow();
+            benchmarkThreads = null;
+        }
+    }
+
+    private LatencyHistogram[] getThreadLatencyHistograms(int threads) {
+        if (threadLatencyHistograms.length < threads) {
+            threadLatencyHistograms = new LatencyHistogram[threads];
+            for (int t = 0; t < threads; t++) {
+                threadLatencyHistograms[t] = new LatencyHistogram();
             }
         }
-        long endNanos = System.nanoTime();
-        double nanos = endNanos - startNanos;
-        return nanos / repeat;
+        return threadLatencyHistograms;
     }
 
     public double convertToTimeUnit(double nanoseconds) {
         return config.getTimeUnit().nanosecondsToTimeUnit(nanoseconds);
     }
 
+    protected interface PointResultConsumer {
+        void accept(int benchmarkIndex, int pointIndex, double[] results);
+    }
+
+    protected interface PointSnippetFactory {
+        Runnable create(int benchmarkIndex, int pointIndex);
+    }
+
     static class WarmupInfo {
         public final int warmupCount;
         public final double warmupTime;
+        public final double warmupSpentTime;
+        public final WarmupStopReason stopReason;
 
         public WarmupInfo(int warmupCount, double warmupTime) {
+            this(warmupCount, warmupTime, warmupCount * warmupTime, WarmupStopReason.None);
+        }
+
+        public WarmupInfo(int warmupCount, double warmupTime, double warmupSpentTime, WarmupStopReason stopReason) {
             this.warmupCount = warmupCount;
             this.warmupTime = warmupTime;
+            this.warmupSpentTime = warmupSpentTime;
+            this.stopReason = stopReason;
         }
     }
 }
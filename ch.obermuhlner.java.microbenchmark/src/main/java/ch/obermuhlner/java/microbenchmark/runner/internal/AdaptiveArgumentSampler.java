@@ -0,0 +1,115 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeSet;
+
+/**
+ * Chooses the argument values of an adaptive sweep.
+ *
+ * The sweep starts with a coarse geometric grid, afterwards the interval between the neighbours with the largest
+ * relative difference of their results is split, as long as the difference is larger than the tolerance
+ * or the confidence intervals of the neighbours do not overlap.
+ */
+class AdaptiveArgumentSampler {
+    private final int startValue;
+    private final int lastValue;
+    private final int initialCount;
+    private final double tolerance;
+
+    AdaptiveArgumentSampler(int startValue, int lastValue, int initialCount, double tolerance) {
+        if (lastValue < startValue) {
+            throw new RuntimeException("Adaptive argument range is empty: " + startValue + " to " + lastValue);
+        }
+        this.startValue = startValue;
+        this.lastValue = lastValue;
+        this.initialCount = Math.max(2, initialCount);
+        this.tolerance = tolerance;
+    }
+
+    List<Integer> initialValues() {
+        TreeSet<Integer> values = new TreeSet<>();
+        values.add(startValue);
+        values.add(lastValue);
+
+        if (lastValue > 1) {
+            int geometricStart = Math.max(startValue, 1);
+            double factor = (double) lastValue / geometricStart;
+            for (int i = 0; i < initialCount; i++) {
+                values.add((int) Math.round(geometricStart * Math.pow(factor, (double) i / (initialCount - 1))));
+            }
+        } else {
+            for (int i = 0; i < initialCount; i++) {
+                values.add((int) Math.round(startValue + ((double) lastValue - startValue) * i / (initialCount - 1)));
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * Returns the next argument value to measure or {@code null} if no interval needs to be refined.
+     *
+     * @param results the statistics of every measured argument value, one entry per benchmark and thread count
+     */
+    Integer nextValue(NavigableMap<Integer, Statistics[]> results) {
+        Integer bestLower = null;
+        Integer bestUpper = null;
+        double bestDifference = -1;
+
+        Map.Entry<Integer, Statistics[]> previous = null;
+        for (Map.Entry<Integer, Statistics[]> entry : results.entrySet()) {
+            if (previous != null && (long) entry.getKey() - previous.getKey() > 1) {
+                double difference = relativeDifference(previous.getValue(), entry.getValue());
+                boolean refine = difference > tolerance || !confidenceIntervalsOverlap(previous.getValue(), entry.getValue());
+                if (refine && difference > bestDifference) {
+                    bestDifference = difference;
+                    bestLower = previous.getKey();
+                    bestUpper = entry.getKey();
+                }
+            }
+            previous = entry;
+        }
+
+        if (bestLower == null) {
+            return null;
+        }
+        return midpoint(bestLower, bestUpper);
+    }
+
+    private static int midpoint(int lower, int upper) {
+        long value;
+        if (lower > 0) {
+            value = Math.round(Math.sqrt((double) lower * upper));
+        } else {
+            value = ((long) lower + upper) / 2;
+        }
+        return (int) Math.max(lower + 1L, Math.min(upper - 1L, value));
+    }
+
+    private static double relativeDifference(Statistics[] statistics1, Statistics[] statistics2) {
+        double result = 0;
+        for (int i = 0; i < statistics1.length; i++) {
+            double value1 = statistics1[i].getResult();
+            double value2 = statistics2[i].getResult();
+            double smaller = Math.min(Math.abs(value1), Math.abs(value2));
+            if (value1 != value2) {
+                result = Math.max(result, smaller == 0 ? Double.MAX_VALUE : Math.abs(value1 - value2) / smaller);
+            }
+        }
+        return result;
+    }
+
+    private static boolean confidenceIntervalsOverlap(Statistics[] statistics1, Statistics[] statistics2) {
+        for (int i = 0; i < statistics1.length; i++) {
+            if (statistics1[i].getMeanConfidenceUpper() < statistics2[i].getMeanConfidenceLower()
+                    || statistics2[i].getMeanConfidenceUpper() < statistics1[i].getMeanConfidenceLower()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+class AllocationCounter {
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    private AllocationCounter(com.sun.management.ThreadMXBean threadMXBean) {
+        this.threadMXBean = threadMXBean;
+    }
+
+    static AllocationCounter create() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            throw new RuntimeException("Counting allocated bytes is not supported by this JVM");
+        }
+
+        com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+            throw new RuntimeException("Counting allocated bytes is not supported by this JVM");
+        }
+        if (!sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+            sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return new AllocationCounter(sunThreadMXBean);
+    }
+
+    long getCurrentThreadAllocatedBytes() {
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -1,13 +1,22 @@
 package ch.obermuhlner.java.microbenchmark.runner.internal;
 
+import ch.obermuhlner.java.microbenchmark.annotation.Level;
 import ch.obermuhlner.java.microbenchmark.printer.CompositeResultPrinter;
 import ch.obermuhlner.java.microbenchmark.printer.CsvResultPrinter;
 import ch.obermuhlner.java.microbenchmark.printer.SimpleResultPrinter;
+import ch.obermuhlner.java.microbenchmark.runner.Arguments;
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import ch.obermuhlner.java.microbenchmark.runner.CacheEviction;
+import ch.obermuhlner.java.microbenchmark.runner.GarbageCollectionSamples;
+import ch.obermuhlner.java.microbenchmark.runner.MeasurementOrder;
 import ch.obermuhlner.java.microbenchmark.runner.ResultCalculators;
 import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.*;
 
 public class BenchmarkConfig {
@@ -15,15 +24,43 @@ public class BenchmarkConfig {
     private double allocatedWarmupRatio = 0.1;
     private double allocatedSleepRatio = 0.01;
     private double allocatedMeasureSeconds = 1.0;
+    private double totalMeasureSeconds = 0;
+    private double targetPrecision = 0.01;
+    private MeasurementOrder measurementOrder = MeasurementOrder.Sequential;
+    private long measurementOrderSeed = 0;
     private Double allocatedWarmupSeconds = null;
     private Double allocatedSleepSeconds = null;
     private int preWarmupCount = 0;
+    private boolean adaptiveWarmup = false;
+    private int warmupWindowSize = 10;
+    private double warmupConvergenceThreshold = 0.02;
     private int minWarmupCount = 1;
     private int maxWarmupCount = 1_000_000_000;
     private int minMeasureCount = 1;
     private int maxMeasureCount = 1_000_000_000;
     private long timeoutSeconds = 60;
     private boolean measureFirstTimeOnly = false;
+    private int[] threadCounts = { 1 };
+    private int forkCount = 0;
+    private List<String> forkJvmArguments = new ArrayList<>();
+    private List<String> forkMainArguments = new ArrayList<>();
+    private boolean forkEachArgument = false;
+    private int adaptiveArgumentInitialCount = 8;
+    private int adaptiveArgumentMaxCount = 50;
+    private double adaptiveArgumentTolerance = 0.1;
+    private double adaptiveArgumentTimeBudgetSeconds = 0;
+    private int latencySampleInterval = 0;
+    private boolean measureAllocations = false;
+    private boolean correctHarnessOverhead = false;
+    private boolean measureGarbageCollections = false;
+    private boolean garbageCollectBetweenRuns = false;
+    private GarbageCollectionSamples garbageCollectionSamples = GarbageCollectionSamples.Keep;
+    private CacheEviction cacheEviction = CacheEviction.None;
+    private long cacheEvictionBytes = 0;
+    private int argumentCopies = 1;
+    private Function<Object, Object> argumentCopier = null;
+    private final Map<Level, List<Consumer<Arguments>>> setupHooks = new EnumMap<>(Level.class);
+    private final Map<Level, List<Consumer<Arguments>>> tearDownHooks = new EnumMap<>(Level.class);
 
     public int runCount = 10;
 
@@ -32,6 +69,8 @@ public class BenchmarkConfig {
 
     public Function<double[], Double> resultCalculator = ResultCalculators.AVERAGE_LOWER_HALF;
 
+    public final Blackhole blackhole = new Blackhole();
+
     public final CompositeResultPrinter resultPrinter;
     public final SimpleResultPrinter simpleResultPrinter = new SimpleResultPrinter();
     private CsvResultPrinter csvResultPrinter;
@@ -48,6 +87,38 @@ public class BenchmarkConfig {
         this.allocatedMeasureSeconds = allocatedMeasureSeconds;
     }
 
+    public double getTotalMeasureSeconds() {
+        return totalMeasureSeconds;
+    }
+
+    public void setTotalMeasureSeconds(double totalMeasureSeconds) {
+        this.totalMeasureSeconds = totalMeasureSeconds;
+    }
+
+    public double getTargetPrecision() {
+        return targetPrecision;
+    }
+
+    public void setTargetPrecision(double targetPrecision) {
+        this.targetPrecision = targetPrecision;
+    }
+
+    public MeasurementOrder getMeasurementOrder() {
+        return measurementOrder;
+    }
+
+    public void setMeasurementOrder(MeasurementOrder measurementOrder) {
+        this.measurementOrder = measurementOrder;
+    }
+
+    public long getMeasurementOrderSeed() {
+        return measurementOrderSeed;
+    }
+
+    public void setMeasurementOrderSeed(long measurementOrderSeed) {
+        this.measurementOrderSeed = measurementOrderSeed;
+    }
+
     public double getAllocatedWarmupSeconds() {
         if (allocatedWarmupSeconds == null) {
             return allocatedMeasureSeconds * allocatedWarmupRatio;
@@ -78,6 +149,30 @@ public class BenchmarkConfig {
         this.preWarmupCount = preWarmupCount;
     }
 
+    public boolean isAdaptiveWarmup() {
+        return adaptiveWarmup;
+    }
+
+    public void setAdaptiveWarmup(boolean adaptiveWarmup) {
+        this.adaptiveWarmup = adaptiveWarmup;
+    }
+
+    public int getWarmupWindowSize() {
+        return warmupWindowSize;
+    }
+
+    public void setWarmupWindowSize(int warmupWindowSize) {
+        this.warmupWindowSize = warmupWindowSize;
+    }
+
+    public double getWarmupConvergenceThreshold() {
+        return warmupConvergenceThreshold;
+    }
+
+    public void setWarmupConvergenceThreshold(double warmupConvergenceThreshold) {
+        this.warmupConvergenceThreshold = warmupConvergenceThreshold;
+    }
+
     public int getMinWarmupCount() {
         return minWarmupCount;
     }
@@ -126,6 +221,182 @@ public class BenchmarkConfig {
         this.measureFirstTimeOnly = measureFirstTimeOnly;
     }
 
+    public int[] getThreadCounts() {
+        return threadCounts;
+    }
+
+    public void setThreadCounts(int[] threadCounts) {
+        if (threadCounts.length == 0) {
+            throw new IllegalArgumentException("At least one thread count is required");
+        }
+        for (int threadCount : threadCounts) {
+            if (threadCount < 1) {
+                throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+            }
+        }
+        this.threadCounts = threadCounts;
+    }
+
+    public int getForkCount() {
+        return forkCount;
+    }
+
+    public void setForkCount(int forkCount) {
+        this.forkCount = forkCount;
+    }
+
+    public List<String> getForkJvmArguments() {
+        return forkJvmArguments;
+    }
+
+    public void setForkJvmArguments(List<String> forkJvmArguments) {
+        this.forkJvmArguments = forkJvmArguments;
+    }
+
+    public List<String> getForkMainArguments() {
+        return forkMainArguments;
+    }
+
+    public void setForkMainArguments(List<String> forkMainArguments) {
+        this.forkMainArguments = forkMainArguments;
+    }
+
+    public boolean isForkEachArgument() {
+        return forkEachArgument;
+    }
+
+    public void setForkEachArgument(boolean forkEachArgument) {
+        this.forkEachArgument = forkEachArgument;
+    }
+
+    public int getAdaptiveArgumentInitialCount() {
+        return adaptiveArgumentInitialCount;
+    }
+
+    public void setAdaptiveArgumentInitialCount(int adaptiveArgumentInitialCount) {
+        this.adaptiveArgumentInitialCount = adaptiveArgumentInitialCount;
+    }
+
+    public int getAdaptiveArgumentMaxCount() {
+        return adaptiveArgumentMaxCount;
+    }
+
+    public void setAdaptiveArgumentMaxCount(int adaptiveArgumentMaxCount) {
+        this.adaptiveArgumentMaxCount = adaptiveArgumentMaxCount;
+    }
+
+    public double getAdaptiveArgumentTolerance() {
+        return adaptiveArgumentTolerance;
+    }
+
+    public void setAdaptiveArgumentTolerance(double adaptiveArgumentTolerance) {
+        this.adaptiveArgumentTolerance = adaptiveArgumentTolerance;
+    }
+
+    public double getAdaptiveArgumentTimeBudgetSeconds() {
+        return adaptiveArgumentTimeBudgetSeconds;
+    }
+
+    public void setAdaptiveArgumentTimeBudgetSeconds(double adaptiveArgumentTimeBudgetSeconds) {
+        this.adaptiveArgumentTimeBudgetSeconds = adaptiveArgumentTimeBudgetSeconds;
+    }
+
+    public int getLatencySampleInterval() {
+        return latencySampleInterval;
+    }
+
+    public void setLatencySampleInterval(int latencySampleInterval) {
+        this.latencySampleInterval = latencySampleInterval;
+    }
+
+    public boolean isMeasureAllocations() {
+        return measureAllocations;
+    }
+
+    public void setMeasureAllocations(boolean measureAllocations) {
+        this.measureAllocations = measureAllocations;
+    }
+
+    public boolean isCorrectHarnessOverhead() {
+        return correctHarnessOverhead;
+    }
+
+    public void setCorrectHarnessOverhead(boolean correctHarnessOverhead) {
+        this.correctHarnessOverhead = correctHarnessOverhead;
+    }
+
+    public boolean isMeasureGarbageCollections() {
+        return measureGarbageCollections || garbageCollectionSamples != GarbageCollectionSamples.Keep;
+    }
+
+    public void setMeasureGarbageCollections(boolean measureGarbageCollections) {
+        this.measureGarbageCollections = measureGarbageCollections;
+    }
+
+    public boolean isGarbageCollectBetweenRuns() {
+        return garbageCollectBetweenRuns;
+    }
+
+    public void setGarbageCollectBetweenRuns(boolean garbageCollectBetweenRuns) {
+        this.garbageCollectBetweenRuns = garbageCollectBetweenRuns;
+    }
+
+    public GarbageCollectionSamples getGarbageCollectionSamples() {
+        return garbageCollectionSamples;
+    }
+
+    public void setGarbageCollectionSamples(GarbageCollectionSamples garbageCollectionSamples) {
+        this.garbageCollectionSamples = garbageCollectionSamples;
+    }
+
+    public CacheEviction getCacheEviction() {
+        return cacheEviction;
+    }
+
+    public void setCacheEviction(CacheEviction cacheEviction) {
+        this.cacheEviction = cacheEviction;
+    }
+
+    public long getCacheEvictionBytes() {
+        return cacheEvictionBytes;
+    }
+
+    public void setCacheEvictionBytes(long cacheEvictionBytes) {
+        this.cacheEvictionBytes = cacheEvictionBytes;
+    }
+
+    public int getArgumentCopies() {
+        return argumentCopies;
+    }
+
+    public void setArgumentCopies(int argumentCopies) {
+        this.argumentCopies = argumentCopies;
+    }
+
+    public Function<Object, Object> getArgumentCopier() {
+        return argumentCopier;
+    }
+
+    public void setArgumentCopier(Function<Object, Object> argumentCopier) {
+        this.argumentCopier = argumentCopier;
+    }
+
+    public List<Consumer<Arguments>> getSetupHooks(Level level) {
+        return setupHooks.getOrDefault(level, Collections.emptyList());
+    }
+
+    public void addSetupHook(Level level, Consumer<Arguments> hook) {
+        setupHooks.computeIfAbsent(level, key -> new ArrayList<>()).add(hook);
+    }
+
+    public List<Consumer<Arguments>> getTearDownHooks(Level level) {
+        return tearDownHooks.getOrDefault(level, Collections.emptyList());
+    }
+
+    public void addTearDownHook(Level level, Consumer<Arguments> hook) {
+        tearDownHooks.computeIfAbsent(level, key -> new ArrayList<>()).add(hook);
+    }
+
     public int getRunCount() {
         return runCount;
     }
@@ -0,0 +1,319 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.Arguments;
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs benchmarks over the cartesian product of any number of argument axes.
+ *
+ * The points of the cartesian product are enumerated lazily and the results are printed in long format
+ * with one column per argument axis.
+ */
+public class BenchmarkRunnerMultipleArguments extends AbstractBenchmarkRunner {
+    private final List<List<?>> arguments = new ArrayList<>();
+    private final List<List<String>> argumentsNames = new ArrayList<>();
+    private final List<String> axisNames = new ArrayList<>();
+
+    private final List<BenchmarkSnippet> benchmarkSnippets = new ArrayList<>();
+    private final List<Boolean> spreadArguments = new ArrayList<>();
+
+    public BenchmarkRunnerMultipleArguments(BenchmarkConfig config, List<List<?>> arguments, List<List<String>> argumentsNames) {
+        super(config);
+        for (int i = 0; i < arguments.size(); i++) {
+            addAxis(arguments.get(i), argumentsNames.get(i));
+        }
+    }
+
+    BenchmarkRunnerMultipleArguments(BenchmarkConfig config, List<List<?>> arguments, List<List<String>> argumentsNames, List<BenchmarkSnippet> spreadSnippets) {
+        this(config, arguments, argumentsNames);
+        for (BenchmarkSnippet snippet : spreadSnippets) {
+            benchmarkSnippets.add(snippet);
+            spreadArguments.add(true);
+        }
+    }
+
+    public BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue) {
+        return forLoop(startValue, exclEndValue, startValue<exclEndValue ? 1 : -1, Function.identity());
+    }
+
+    public <T> BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue, Function<Integer, T> converter) {
+        return forLoop(startValue, exclEndValue, startValue<exclEndValue ? 1 : -1, converter);
+    }
+
+    public BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue, int step) {
+        return forLoop(startValue, i -> i < exclEndValue, i -> i + step, Function.identity());
+    }
+
+    public <T> BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue, int step, Function<Integer, T> converter) {
+        return forLoop(startValue, i -> i < exclEndValue, i -> i + step, converter);
+    }
+
+    public <T> BenchmarkRunnerMultipleArguments forLoop(T startValue, Predicate<T> condition, Function<T, T> stepFunction) {
+        return forLoop(startValue, condition, stepFunction, Function.identity());
+    }
+
+    public <A, T> BenchmarkRunnerMultipleArguments forLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, Function<A, T> converter) {
+        return forLoop(startValue, condition, stepFunction, converter, String::valueOf);
+    }
+
+    public <A, T> BenchmarkRunnerMultipleArguments forLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, Function<A, T> converter, Function<A, String> argumentToNameFunction) {
+        List<T> arguments = new ArrayList<>();
+        List<String> argumentsNames = new ArrayList<>();
+
+        A value = startValue;
+        while (condition.test(value)) {
+            arguments.add(converter.apply(value));
+            argumentsNames.add(argumentToNameFunction.apply(value));
+            value = stepFunction.apply(value);
+        }
+
+        return forArguments(arguments, argumentsNames);
+    }
+
+    public <T> BenchmarkRunnerMultipleArguments forArguments(Stream<T> stream) {
+        return forArguments(stream.collect(Collectors.toList()));
+    }
+
+    @SafeVarargs
+    public final <T> BenchmarkRunnerMultipleArguments forArguments(T... arguments) {
+        return forArguments(Arrays.asList(arguments));
+    }
+
+    public <T> BenchmarkRunnerMultipleArguments forArguments(List<T> arguments) {
+        return forArguments(arguments, String::valueOf);
+    }
+
+    public <T> BenchmarkRunnerMultipleArguments forArguments(List<T> arguments, Function<T, String> argumentToNameFunction) {
+        List<String> argumentsNames = arguments.stream().map(argumentToNameFunction).collect(Collectors.toList());
+        return forArguments(arguments, argumentsNames);
+    }
+
+    public <T> BenchmarkRunnerMultipleArguments forArguments(List<T> arguments, List<String> argumentsNames) {
+        if (!benchmarkSnippets.isEmpty()) {
+            throw new RuntimeException("Arguments must be specified before the benchmarks");
+        }
+        addAxis(arguments, argumentsNames);
+        return this;
+    }
+
+    public BenchmarkRunnerMultipleArguments axisNames(String... names) {
+        if (names.length != arguments.size()) {
+            throw new RuntimeException("Expected " + arguments.size() + " axis names, but got " + names.length);
+        }
+        axisNames.clear();
+        axisNames.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    public BenchmarkRunnerMultipleArguments benchmark(String name, Consumer<Arguments> snippet) {
+        return addBenchmark(name, new BenchmarkSnippet(SnippetLoop.CONSUMER, snippet));
+    }
+
+    public <R> BenchmarkRunnerMultipleArguments benchmarkFunction(String name, Function<Arguments, R> snippet) {
+        return addBenchmark(name, new BenchmarkSnippet(SnippetLoop.FUNCTION, snippet));
+    }
+
+    public BenchmarkRunnerMultipleArguments benchmark(String name, BiConsumer<Arguments, Blackhole> snippet) {
+        return addBenchmark(name, new BenchmarkSnippet(SnippetLoop.BI_CONSUMER, snippet, true));
+    }
+
+    public void run() {
+        int runIndex = ForkedBenchmarkExecutor.nextRunIndex();
+        if (ForkedBenchmarkExecutor.isChild()) {
+            if (ForkedBenchmarkExecutor.isChildRun(runIndex)) {
+                runTrial(() -> measureSnippets(ForkedBenchmarkExecutor.getChildBenchmarkIndex(), ForkedBenchmarkExecutor.getChildPointIndex(), ForkedBenchmarkExecutor::sendResult));
+                ForkedBenchmarkExecutor.exitChild();
+            }
+            return;
+        }
+
+        try {
+            runSnippets(runIndex);
+        } finally {
+            config.resultPrinter.close();
+        }
+    }
+
+    private BenchmarkRunnerMultipleArguments addBenchmark(String name, BenchmarkSnippet snippet) {
+        config.names.add(name);
+        benchmarkSnippets.add(snippet);
+        spreadArguments.add(false);
+        return this;
+    }
+
+    private void addAxis(List<?> axisArguments, List<String> axisArgumentsNames) {
+        if (axisArguments.isEmpty()) {
+            throw new RuntimeException("Argument axis " + (arguments.size() + 1) + " is empty");
+        }
+        arguments.add(axisArguments);
+        argumentsNames.add(axisArgumentsNames);
+        axisNames.add("argument" + arguments.size());
+    }
+
+    private void runSnippets(int runIndex) {
+        config.resultPrinter.setTimeUnit(config.getTimeUnit());
+
+        List<String> printedAxisNames = new ArrayList<>(axisNames);
+        if (config.getThreadCounts().length > 1) {
+            printedAxisNames.add("threads");
+        }
+
+        config.resultPrinter.printAxes(printedAxisNames);
+        config.resultPrinter.printNames(config.names);
+        config.resultPrinter.printArguments(Collections.emptyList());
+
+        // only the baselines of the points that are not yet compared are kept
+        Map<Integer, Statistics> baselineStatistics = new HashMap<>();
+        PointResultConsumer resultPrinter = (benchmarkIndex, pointIndex, results) -> {
+            double result = calculateResult(results);
+            Statistics statistics = new Statistics(results, result);
+            String name = config.names.get(benchmarkIndex);
+            List<String> axisValues = toAxisValues(pointIndex);
+            String pointName = String.join(", ", axisValues);
+            config.resultPrinter.printAxisValues(pointName, axisValues);
+            config.resultPrinter.printBenchmark(name, pointName, statistics);
+            printPointMetrics(name, pointName, result);
+
+            if (benchmarkIndex == 0) {
+                baselineStatistics.put(pointIndex, statistics);
+            } else {
+                Statistics baseline = baselineStatistics.get(pointIndex);
+                if (baseline != null) {
+                    config.resultPrinter.printComparison(name, config.names.get(0), pointName, statistics.compare(baseline));
+                }
+            }
+            if (benchmarkIndex == config.names.size() - 1) {
+                baselineStatistics.remove(pointIndex);
+            }
+        };
+
+        if (config.getForkCount() > 0) {
+            runForked(runIndex, config.names.size(), getPointCount(), resultPrinter);
+        } else {
+            runTrial(() -> measureSnippets(-1, -1, resultPrinter));
+        }
+
+        config.resultPrinter.printFinished();
+    }
+
+    private void measureSnippets(int benchmarkFilter, int pointFilter, PointResultConsumer resultConsumer) {
+        int[] threadCounts = config.getThreadCounts();
+        int pointCount = getPointCount();
+
+        for (int i = 0; i < config.names.size(); i++) {
+            if (benchmarkFilter >= 0 && benchmarkFilter != i) {
+                continue;
+            }
+            setThreadCount(threadCounts[0]);
+            preWarmup(bind(i, toAxisIndexes(0)));
+        }
+
+        if (isMeasureInterleaved() && benchmarkFilter < 0 && pointFilter < 0) {
+            measureInterleaved(config.names.size(), pointCount, (i, p) -> {
+                int[] axisIndexes = toAxisIndexes(p);
+                setThreadCount(threadCounts[axisIndexes[arguments.size()]]);
+                return bind(i, axisIndexes);
+            }, resultConsumer);
+            return;
+        }
+
+        // every point is warmed up right before it is measured, so no state is kept for the whole cartesian product
+        for (int p = 0; p < pointCount; p++) {
+            if (pointFilter >= 0 && pointFilter != p) {
+                continue;
+            }
+            int[] axisIndexes = toAxisIndexes(p);
+            setThreadCount(threadCounts[axisIndexes[arguments.size()]]);
+            for (int i = 0; i < config.names.size(); i++) {
+                if (benchmarkFilter >= 0 && benchmarkFilter != i) {
+                    continue;
+                }
+                int benchmarkIndex = i;
+                SnippetLoop snippetLoop = bind(benchmarkIndex, axisIndexes);
+                WarmupInfo warmupInfo = warmup(snippetLoop);
+                measureColdCache(warmupInfo, values -> bindWithoutHooks(benchmarkIndex, values), toValues(axisIndexes));
+                double[] results = measure(snippetLoop, config.getPreWarmupCount(), warmupInfo);
+                resultConsumer.accept(i, p, results);
+            }
+        }
+    }
+
+    private SnippetLoop bind(int benchmarkIndex, int[] axisIndexes) {
+        Object[] values = toValues(axisIndexes);
+        return withHooks(bindWithoutHooks(benchmarkIndex, values), values);
+    }
+
+    private SnippetLoop bindWithoutHooks(int benchmarkIndex, Object[] values) {
+        BenchmarkSnippet snippet = benchmarkSnippets.get(benchmarkIndex);
+        if (spreadArguments.get(benchmarkIndex)) {
+            return bindBlackhole(blackhole -> snippet.bind(blackhole, values));
+        }
+        return bindBlackhole(blackhole -> snippet.bind(blackhole, new Arguments(values)));
+    }
+
+    private Object[] toValues(int[] axisIndexes) {
+        Object[] values = new Object[arguments.size()];
+        for (int axis = 0; axis < values.length; axis++) {
+            values[axis] = arguments.get(axis).get(axisIndexes[axis]);
+        }
+        return values;
+    }
+
+    private int getPointCount() {
+        long count = config.getThreadCounts().length;
+        for (List<?> axisArguments : arguments) {
+            count *= axisArguments.size();
+            if (count > Integer.MAX_VALUE) {
+                throw new RuntimeException("Too many argument combinations");
+            }
+        }
+        return (int) count;
+    }
+
+    /**
+     * Returns the index into every argument axis for the point index, the last element is the index of the thread count.
+     * The first axis changes fastest.
+     */
+    private int[] toAxisIndexes(int pointIndex) {
+        int[] axisIndexes = new int[arguments.size() + 1];
+        int remaining = pointIndex;
+        for (int axis = 0; axis < arguments.size(); axis++) {
+            int size = arguments.get(axis).size();
+            axisIndexes[axis] = remaining % size;
+            remaining /= size;
+        }
+        axisIndexes[arguments.size()] = remaining;
+        return axisIndexes;
+    }
+
+    /**
+     * Returns the unquoted name of the argument of every axis for the point index, the printers quote them as needed.
+     */
+    private List<String> toAxisValues(int pointIndex) {
+        int[] threadCounts = config.getThreadCounts();
+        int[] axisIndexes = toAxisIndexes(pointIndex);
+
+        List<String> result = new ArrayList<>();
+        for (int axis = 0; axis < arguments.size(); axis++) {
+            result.add(argumentsNames.get(axis).get(axisIndexes[axis]));
+        }
+        if (threadCounts.length > 1) {
+            result.add(String.valueOf(threadCounts[axisIndexes[arguments.size()]]));
+        }
+        return result;
+    }
+}
@@ -1,8 +1,15 @@
 package ch.obermuhlner.java.microbenchmark.runner.internal;
 
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -12,7 +19,10 @@ import java.util.stream.Stream;
 public class BenchmarkRunnerOneArgument<T1> extends AbstractBenchmarkRunner {
     private List<T1> arguments1;
     private List<String> arguments1Names;
-    private List<Consumer<T1>> benchmarkSnippets1 = new ArrayList<>();
+    private List<BenchmarkSnippet> benchmarkSnippets1 = new ArrayList<>();
+
+    private AdaptiveArgumentSampler adaptiveSampler;
+    private Function<Integer, T1> adaptiveConverter;
 
     public BenchmarkRunnerOneArgument(BenchmarkConfig config, List<T1> arguments, List<String> argumentsNames) {
         super(config);
@@ -20,6 +30,12 @@ public class BenchmarkRunnerOneArgument<T1> extends AbstractBenchmarkRunner {
         arguments1Names = argumentsNames;
     }
 
+    public BenchmarkRunnerOneArgument(BenchmarkConfig config, int startValue, int lastValue, Function<Integer, T1> converter) {
+        this(config, new ArrayList<>(), new ArrayList<>());
+        adaptiveSampler = new AdaptiveArgumentSampler(startValue, lastValue, config.getAdaptiveArgumentInitialCount(), config.getAdaptiveArgumentTolerance());
+        adaptiveConverter = converter;
+    }
+
     public BenchmarkRunnerTwoArguments<T1, Integer> forLoop(int startValue, int exclEndValue) {
         return forLoop(startValue, exclEndValue, startValue<exclEndValue ? 1 : -1, Function.identity());
     }
@@ -76,66 +92,291 @@ public class BenchmarkRunnerOneArgument<T1> extends AbstractBenchmarkRunner {
     }
 
     public <T2> BenchmarkRunnerTwoArguments<T1, T2> forArguments(List<T2> arguments, List<String> argumentsNames) {
+        if (adaptiveSampler != null) {
+            throw new RuntimeException("Adaptive arguments are only supported for one-dimensional benchmarks");
+        }
         return new BenchmarkRunnerTwoArguments<T1, T2>(config, arguments1,  arguments1Names, arguments, argumentsNames);
     }
 
     public BenchmarkRunnerOneArgument<T1> benchmark(String name, Consumer<T1> snippet) {
         config.names.add(name);
-        benchmarkSnippets1.add(snippet);
+        benchmarkSnippets1.add(new BenchmarkSnippet(SnippetLoop.CONSUMER, snippet));
+        return this;
+    }
+
+    public <R> BenchmarkRunnerOneArgument<T1> benchmarkFunction(String name, Function<T1, R> snippet) {
+        config.names.add(name);
+        benchmarkSnippets1.add(new BenchmarkSnippet(SnippetLoop.FUNCTION, snippet));
+        return this;
+    }
+
+    public BenchmarkRunnerOneArgument<T1> benchmark(String name, BiConsumer<T1, Blackhole> snippet) {
+        config.names.add(name);
+        benchmarkSnippets1.add(new BenchmarkSnippet(SnippetLoop.BI_CONSUMER, snippet, true));
         return this;
     }
 
     public void run() {
+        int runIndex = ForkedBenchmarkExecutor.nextRunIndex();
+        if (ForkedBenchmarkExecutor.isChild()) {
+            if (ForkedBenchmarkExecutor.isChildRun(runIndex)) {
+                runTrial(() -> measureSnippets1(ForkedBenchmarkExecutor.getChildBenchmarkIndex(), ForkedBenchmarkExecutor.getChildPointIndex(), ForkedBenchmarkExecutor::sendResult));
+                ForkedBenchmarkExecutor.exitChild();
+            }
+            return;
+        }
+
         try {
-            runSnippets1();
+            if (adaptiveSampler != null) {
+                runAdaptive();
+            } else {
+                runSnippets1(runIndex);
+            }
         } finally {
             config.resultPrinter.close();
         }
     }
 
-    private void runSnippets1() {
+    private void runSnippets1(int runIndex) {
         config.resultPrinter.setTimeUnit(config.getTimeUnit());
 
+        List<String> pointNames = toThreadArgumentNames(arguments1Names);
+
+        config.resultPrinter.printDimensions(1);
+        config.resultPrinter.printNames(config.names);
+        config.resultPrinter.printArguments(pointNames);
+
+        Statistics[][] allStatistics = new Statistics[config.names.size()][pointNames.size()];
+        PointResultConsumer resultPrinter = (benchmarkIndex, pointIndex, results) -> {
+            double result = calculateResult(results);
+            Statistics statistics = new Statistics(results, result);
+            allStatistics[benchmarkIndex][pointIndex] = statistics;
+            config.resultPrinter.printBenchmark(config.names.get(benchmarkIndex), pointNames.get(pointIndex), statistics);
+            printPointMetrics(config.names.get(benchmarkIndex), pointNames.get(pointIndex), result);
+        };
+
+        if (config.getForkCount() > 0) {
+            runForked(runIndex, config.names.size(), pointNames.size(), resultPrinter);
+        } else {
+            runTrial(() -> measureSnippets1(-1, -1, resultPrinter));
+        }
+
+        for (int i = 1; i < config.names.size(); i++) {
+            for (int p = 0; p < pointNames.size(); p++) {
+                Statistics statistics = allStatistics[i][p];
+                Statistics baseline = allStatistics[0][p];
+                if (statistics != null && baseline != null) {
+                    config.resultPrinter.printComparison(config.names.get(i), config.names.get(0), pointNames.get(p), statistics.compare(baseline));
+                }
+            }
+        }
+
+        config.resultPrinter.printFinished();
+    }
+
+    private void runAdaptive() {
+        if (config.getForkCount() > 0) {
+            throw new RuntimeException("Adaptive arguments cannot be measured in forked JVMs");
+        }
+        if (config.getTotalMeasureSeconds() > 0) {
+            throw new RuntimeException("Adaptive arguments cannot be measured with a total measure time");
+        }
+        if (isMeasureInterleaved()) {
+            throw new RuntimeException("Adaptive arguments cannot be measured interleaved");
+        }
+
+        config.resultPrinter.setTimeUnit(config.getTimeUnit());
         config.resultPrinter.printDimensions(1);
         config.resultPrinter.printNames(config.names);
-        config.resultPrinter.printArguments(arguments1Names);
 
-        WarmupInfo[] warmupInfos = new WarmupInfo[config.names.size() * arguments1.size()];
+        // the arguments are only known after the sweep, the results are printed after them
+        NavigableMap<Integer, Statistics[]> results = new TreeMap<>();
+        BufferedResultPrinter bufferedResultPrinter = new BufferedResultPrinter();
+        runTrial(() -> measureAdaptiveArguments(results, bufferedResultPrinter));
 
+        List<String> argumentsNames = results.keySet().stream().map(String::valueOf).collect(Collectors.toList());
+        config.resultPrinter.printArguments(toThreadArgumentNames(argumentsNames));
+        bufferedResultPrinter.replay(config.resultPrinter);
+        config.resultPrinter.printFinished();
+    }
+
+    private void measureAdaptiveArguments(NavigableMap<Integer, Statistics[]> results, BufferedResultPrinter resultPrinter) {
+        int[] threadCounts = config.getThreadCounts();
+        long startNanos = System.nanoTime();
+        double timeBudgetNanos = config.getAdaptiveArgumentTimeBudgetSeconds() * 1_000_000_000;
+
+        List<Integer> initialValues = adaptiveSampler.initialValues();
         for (int i = 0; i < config.names.size(); i++) {
-            Consumer<T1> snippet = benchmarkSnippets1.get(i);
+            setThreadCount(threadCounts[0]);
+            preWarmup(benchmarkSnippets1.get(i), adaptiveConverter.apply(initialValues.get(0)));
+        }
+
+        // the initial grid is always measured completely, the refinement stops at the point or time budget
+        for (Integer value : initialValues) {
+            results.put(value, measureAdaptive(value, resultPrinter));
+        }
+        while (results.size() < config.getAdaptiveArgumentMaxCount()
+                && (timeBudgetNanos <= 0 || System.nanoTime() - startNanos < timeBudgetNanos)) {
+            Integer value = adaptiveSampler.nextValue(results);
+            if (value == null) {
+                break;
+            }
+            results.put(value, measureAdaptive(value, resultPrinter));
+        }
+    }
+
+    private Statistics[] measureAdaptive(int value, BufferedResultPrinter resultPrinter) {
+        int[] threadCounts = config.getThreadCounts();
+        T1 argument = adaptiveConverter.apply(value);
+        List<String> pointNames = toThreadArgumentNames(Collections.singletonList(String.valueOf(value)));
+
+        Statistics[] statistics = new Statistics[config.names.size() * threadCounts.length];
+        for (int t = 0; t < threadCounts.length; t++) {
+            setThreadCount(threadCounts[t]);
+            for (int i = 0; i < config.names.size(); i++) {
+                BenchmarkSnippet snippet = benchmarkSnippets1.get(i);
+                WarmupInfo warmupInfo = warmup(snippet, argument);
+                double[] results = measure(snippet, argument, config.getPreWarmupCount(), warmupInfo);
+                double result = calculateResult(results);
+                statistics[i + t * config.names.size()] = new Statistics(results, result);
+
+                String name = config.names.get(i);
+                resultPrinter.printBenchmark(name, pointNames.get(t), statistics[i + t * config.names.size()]);
+                printPointMetrics(resultPrinter, name, pointNames.get(t), result);
+                if (i > 0) {
+                    resultPrinter.printComparison(name, config.names.get(0), pointNames.get(t), statistics[i + t * config.names.size()].compare(statistics[t * config.names.size()]));
+                }
+            }
+        }
+        return statistics;
+    }
+
+    private void measureSnippets1(int benchmarkFilter, int pointFilter, PointResultConsumer resultConsumer) {
+        int[] threadCounts = config.getThreadCounts();
+        int pointCount = arguments1.size() * threadCounts.length;
+
+        if (config.getTotalMeasureSeconds() > 0) {
+            if (isMeasureInterleaved()) {
+                throw new RuntimeException("A total measure time cannot be spread over interleaved benchmarks");
+            }
+            for (int i = 0; i < config.names.size(); i++) {
+                setThreadCount(threadCounts[0]);
+                preWarmup(benchmarkSnippets1.get(i), arguments1.get(0));
+            }
+            measureWithTimeBudget(config.names.size(), pointCount, (i, j) -> {
+                setThreadCount(threadCounts[j % threadCounts.length]);
+                return bindSnippet(benchmarkSnippets1.get(i), arguments1.get(j / threadCounts.length));
+            }, resultConsumer);
+            return;
+        }
+
+        if (isMeasureInterleaved()) {
+            for (int i = 0; i < config.names.size(); i++) {
+                setThreadCount(threadCounts[0]);
+                preWarmup(benchmarkSnippets1.get(i), arguments1.get(0));
+            }
+            measureInterleaved(config.names.size(), pointCount, (i, j) -> {
+                setThreadCount(threadCounts[j % threadCounts.length]);
+                return bindSnippet(benchmarkSnippets1.get(i), arguments1.get(j / threadCounts.length));
+            }, resultConsumer);
+            return;
+        }
+
+        if (arguments1 instanceof LazyArguments) {
+            measureSnippets1ByPoint(benchmarkFilter, pointFilter, resultConsumer);
+            return;
+        }
+
+        WarmupInfo[] warmupInfos = new WarmupInfo[config.names.size() * pointCount];
+
+        for (int i = 0; i < config.names.size(); i++) {
+            if (benchmarkFilter >= 0 && benchmarkFilter != i) {
+                continue;
+            }
+            BenchmarkSnippet snippet = benchmarkSnippets1.get(i);
+            setThreadCount(threadCounts[0]);
             preWarmup(snippet, arguments1.get(0));
-            for (int j = 0; j < arguments1.size(); j++) {
-                T1 argument = arguments1.get(j);
+            for (int j = 0; j < pointCount; j++) {
+                if (pointFilter >= 0 && pointFilter != j) {
+                    continue;
+                }
+                T1 argument = arguments1.get(j / threadCounts.length);
+                setThreadCount(threadCounts[j % threadCounts.length]);
                 warmupInfos[i+j*config.names.size()] = warmup(snippet, argument);
             }
         }
 
         for (int i = 0; i < config.names.size(); i++) {
-            String name = config.names.get(i);
-            Consumer<T1> snippet = benchmarkSnippets1.get(i);
-            for (int j = 0; j < arguments1.size(); j++) {
-                T1 argument = arguments1.get(j);
-                String argumentName = arguments1Names.get(j);
+            if (benchmarkFilter >= 0 && benchmarkFilter != i) {
+                continue;
+            }
+            BenchmarkSnippet snippet = benchmarkSnippets1.get(i);
+            for (int j = 0; j < pointCount; j++) {
+                if (pointFilter >= 0 && pointFilter != j) {
+                    continue;
+                }
+                T1 argument = arguments1.get(j / threadCounts.length);
+                setThreadCount(threadCounts[j % threadCounts.length]);
                 WarmupInfo warmupInfo = warmupInfos[i+j*config.names.size()];
-                double[] results = measure(snippet, argument, config.getPreWarmupCount(), warmupInfo.warmupCount, warmupInfo.warmupTime);
-                double result = config.resultCalculator.apply(results);
-                config.resultPrinter.printBenchmark(name, argumentName, result, results);
+                double[] results = measure(snippet, argument, config.getPreWarmupCount(), warmupInfo);
+                resultConsumer.accept(i, j, results);
             }
         }
+    }
 
-        config.resultPrinter.printFinished();
+    /**
+     * Warms up and measures all benchmarks point by point, so that only the lazy argument of the current point exists.
+     */
+    private void measureSnippets1ByPoint(int benchmarkFilter, int pointFilter, PointResultConsumer resultConsumer) {
+        LazyArguments<?, T1> lazyArguments = (LazyArguments<?, T1>) arguments1;
+        int[] threadCounts = config.getThreadCounts();
+        int pointCount = arguments1.size() * threadCounts.length;
+
+        boolean[] preWarmedUp = new boolean[config.names.size()];
+        try {
+            for (int j = 0; j < pointCount; j++) {
+                if (pointFilter >= 0 && pointFilter != j) {
+                    continue;
+                }
+                measurePoint1(benchmarkFilter, j, lazyArguments.get(j / threadCounts.length), preWarmedUp, resultConsumer);
+                if (j % threadCounts.length == threadCounts.length - 1) {
+                    lazyArguments.release();
+                }
+            }
+        } finally {
+            lazyArguments.release();
+        }
+    }
+
+    private void measurePoint1(int benchmarkFilter, int pointIndex, T1 argument, boolean[] preWarmedUp, PointResultConsumer resultConsumer) {
+        int[] threadCounts = config.getThreadCounts();
+        for (int i = 0; i < config.names.size(); i++) {
+            if (benchmarkFilter >= 0 && benchmarkFilter != i) {
+                continue;
+            }
+            BenchmarkSnippet snippet = benchmarkSnippets1.get(i);
+            if (!preWarmedUp[i]) {
+                setThreadCount(threadCounts[0]);
+                preWarmup(snippet, argument);
+                preWarmedUp[i] = true;
+            }
+            setThreadCount(threadCounts[pointIndex % threadCounts.length]);
+            WarmupInfo warmupInfo = warmup(snippet, argument);
+            double[] results = measure(snippet, argument, config.getPreWarmupCount(), warmupInfo);
+            resultConsumer.accept(i, pointIndex, results);
+        }
     }
 
-    private WarmupInfo preWarmup(Consumer<T1> snippet, T1 argument) {
-        return preWarmup(() -> snippet.accept(argument));
+    private WarmupInfo preWarmup(BenchmarkSnippet snippet, T1 argument) {
+        return preWarmup(bindSnippet(snippet, argument));
     }
 
-    private WarmupInfo warmup(Consumer<T1> snippet, T1 argument) {
-        return warmup(() -> snippet.accept(argument));
+    private WarmupInfo warmup(BenchmarkSnippet snippet, T1 argument) {
+        return warmup(bindSnippet(snippet, argument));
     }
 
-    private double[] measure(Consumer<T1> snippet, T1 argument, int preWarmupCount, int warmupCount, double warmupTime) {
-        return measure(() -> snippet.accept(argument), preWarmupCount, warmupCount, warmupTime);
+    private double[] measure(BenchmarkSnippet snippet, T1 argument, int preWarmupCount, WarmupInfo warmupInfo) {
+        measureColdCache(warmupInfo, arguments -> snippet.bind(config.blackhole, arguments), argument);
+        return measure(bindSnippet(snippet, argument), preWarmupCount, warmupInfo);
     }
 }
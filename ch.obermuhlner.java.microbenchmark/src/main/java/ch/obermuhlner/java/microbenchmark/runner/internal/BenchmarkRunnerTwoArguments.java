@@ -1,8 +1,18 @@
 package ch.obermuhlner.java.microbenchmark.runner.internal;
 
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.TriConsumer;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class BenchmarkRunnerTwoArguments<T1, T2> extends AbstractBenchmarkRunner {
 
@@ -11,7 +21,7 @@ public class BenchmarkRunnerTwoArguments<T1, T2> extends AbstractBenchmarkRunner
     private List<String> arguments1Names;
     private List<String> arguments2Names;
 
-    private List<BiConsumer<T1, T2>> benchmarkSnippets2 = new ArrayList<>();
+    private List<BenchmarkSnippet> benchmarkSnippets2 = new ArrayList<>();
 
     public BenchmarkRunnerTwoArguments(BenchmarkConfig config, List<T1> arguments1, List<String> arguments1Names, List<T2> arguments2, List<String> arguments2Names) {
         super(config);
@@ -22,71 +32,195 @@ public class BenchmarkRunnerTwoArguments<T1, T2> extends AbstractBenchmarkRunner
         this.arguments2Names = arguments2Names;
     }
 
+    public BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue) {
+        return forLoop(startValue, exclEndValue, startValue<exclEndValue ? 1 : -1, Function.identity());
+    }
+
+    public <T3> BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue, Function<Integer, T3> converter) {
+        return forLoop(startValue, exclEndValue, startValue<exclEndValue ? 1 : -1, converter);
+    }
+
+    public BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue, int step) {
+        return forLoop(startValue, i -> i < exclEndValue, i -> i + step, Function.identity());
+    }
+
+    public <T3> BenchmarkRunnerMultipleArguments forLoop(int startValue, int exclEndValue, int step, Function<Integer, T3> converter) {
+        return forLoop(startValue, i -> i < exclEndValue, i -> i + step, converter);
+    }
+
+    public <T3> BenchmarkRunnerMultipleArguments forLoop(T3 startValue, Predicate<T3> condition, Function<T3, T3> stepFunction) {
+        return forLoop(startValue, condition, stepFunction, Function.identity());
+    }
+
+    public <A, T3> BenchmarkRunnerMultipleArguments forLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, Function<A, T3> converter) {
+        return forLoop(startValue, condition, stepFunction, converter, String::valueOf);
+    }
+
+    public <A, T3> BenchmarkRunnerMultipleArguments forLoop(A startValue, Predicate<A> condition, Function<A, A> stepFunction, Function<A, T3> converter, Function<A, String> argumentToNameFunction) {
+        List<T3> arguments = new ArrayList<>();
+        List<String> argumentsNames = new ArrayList<>();
+
+        A value = startValue;
+        while (condition.test(value)) {
+            arguments.add(converter.apply(value));
+            argumentsNames.add(argumentToNameFunction.apply(value));
+            value = stepFunction.apply(value);
+        }
+
+        return forArguments(arguments, argumentsNames);
+    }
+
+    public <T3> BenchmarkRunnerMultipleArguments forArguments(Stream<T3> stream) {
+        return forArguments(stream.collect(Collectors.toList()));
+    }
+
+    @SafeVarargs
+    public final <T3> BenchmarkRunnerMultipleArguments forArguments(T3... arguments) {
+        return forArguments(Arrays.asList(arguments));
+    }
+
+    public <T3> BenchmarkRunnerMultipleArguments forArguments(List<T3> arguments) {
+        return forArguments(arguments, String::valueOf);
+    }
+
+    public <T3> BenchmarkRunnerMultipleArguments forArguments(List<T3> arguments, Function<T3, String> argumentToNameFunction) {
+        List<String> argumentsNames = arguments.stream().map(argumentToNameFunction).collect(Collectors.toList());
+        return forArguments(arguments, argumentsNames);
+    }
+
+    public <T3> BenchmarkRunnerMultipleArguments forArguments(List<T3> arguments, List<String> argumentsNames) {
+        if (!benchmarkSnippets2.isEmpty()) {
+            throw new RuntimeException("Arguments must be specified before the benchmarks");
+        }
+        return new BenchmarkRunnerMultipleArguments(config, Arrays.asList(arguments1, arguments2, arguments), Arrays.asList(arguments1Names, arguments2Names, argumentsNames));
+    }
+
     public BenchmarkRunnerTwoArguments<T1, T2> benchmark(String name, BiConsumer<T1, T2> snippet) {
         config.names.add(name);
-        benchmarkSnippets2.add(snippet);
+        benchmarkSnippets2.add(new BenchmarkSnippet(SnippetLoop.BI_CONSUMER, snippet));
+        return this;
+    }
+
+    public <R> BenchmarkRunnerTwoArguments<T1, T2> benchmarkFunction(String name, BiFunction<T1, T2, R> snippet) {
+        config.names.add(name);
+        benchmarkSnippets2.add(new BenchmarkSnippet(SnippetLoop.BI_FUNCTION, snippet));
+        return this;
+    }
+
+    public BenchmarkRunnerTwoArguments<T1, T2> benchmark(String name, TriConsumer<T1, T2, Blackhole> snippet) {
+        config.names.add(name);
+        benchmarkSnippets2.add(new BenchmarkSnippet(SnippetLoop.TRI_CONSUMER, snippet, true));
         return this;
     }
 
     public void run() {
+        if (config.names.size() != 1) {
+            // the heat map of a two-dimensional benchmark can only show a single benchmark
+            new BenchmarkRunnerMultipleArguments(config, Arrays.asList(arguments1, arguments2), Arrays.asList(arguments1Names, arguments2Names), benchmarkSnippets2).run();
+            return;
+        }
+
+        int runIndex = ForkedBenchmarkExecutor.nextRunIndex();
+        if (ForkedBenchmarkExecutor.isChild()) {
+            if (ForkedBenchmarkExecutor.isChildRun(runIndex)) {
+                runTrial(() -> measureSnippets2(ForkedBenchmarkExecutor.getChildPointIndex(), ForkedBenchmarkExecutor::sendResult));
+                ForkedBenchmarkExecutor.exitChild();
+            }
+            return;
+        }
+
         try {
-            runSnippets2();
+            runSnippets2(runIndex);
         } finally {
             config.resultPrinter.close();
         }
     }
 
-    private void runSnippets2() {
-        if (config.names.size() != 1) {
-            throw new RuntimeException("Can only run exactly 1 two-dimensional benchmark");
-        }
-
+    private void runSnippets2(int runIndex) {
         config.resultPrinter.setTimeUnit(config.getTimeUnit());
 
+        List<String> pointNames = toThreadArgumentNames(arguments2Names);
+
         config.resultPrinter.printDimensions(2);
         config.resultPrinter.printNames(arguments1Names);
-        config.resultPrinter.printArguments(arguments2Names);
+        config.resultPrinter.printArguments(pointNames);
+
+        PointResultConsumer resultPrinter = (benchmarkIndex, pointIndex, results) -> {
+            double result = calculateResult(results);
+            String argument1Name = arguments1Names.get(pointIndex % arguments1.size());
+            String argument2Name = pointNames.get(pointIndex / arguments1.size());
+            config.resultPrinter.printBenchmark(argument1Name, argument2Name, new Statistics(results, result));
+            printPointMetrics(argument1Name, argument2Name, result);
+        };
+
+        if (config.getForkCount() > 0) {
+            runForked(runIndex, 1, arguments1.size() * pointNames.size(), resultPrinter);
+        } else {
+            runTrial(() -> measureSnippets2(-1, resultPrinter));
+        }
+
+        config.resultPrinter.printFinished();
+    }
 
-        BiConsumer<T1, T2> snippet = benchmarkSnippets2.get(0);
+    private void measureSnippets2(int pointFilter, PointResultConsumer resultConsumer) {
+        int[] threadCounts = config.getThreadCounts();
+        int pointCount = arguments2.size() * threadCounts.length;
 
+        BenchmarkSnippet snippet = benchmarkSnippets2.get(0);
+
+        setThreadCount(threadCounts[0]);
         preWarmup(snippet, arguments1.get(0), arguments2.get(0));
 
-        WarmupInfo[] warmupInfos = new WarmupInfo[arguments1.size() * arguments2.size()];
+        if (config.getTotalMeasureSeconds() > 0) {
+            measureWithTimeBudget(1, arguments1.size() * pointCount, (benchmarkIndex, index) -> {
+                int j = index / arguments1.size();
+                setThreadCount(threadCounts[j % threadCounts.length]);
+                return bindSnippet(snippet, arguments1.get(index % arguments1.size()), arguments2.get(j / threadCounts.length));
+            }, resultConsumer);
+            return;
+        }
+
+        WarmupInfo[] warmupInfos = new WarmupInfo[arguments1.size() * pointCount];
 
         for (int i = 0; i < arguments1.size(); i++) {
             T1 argument1 = arguments1.get(i);
-            for (int j = 0; j < arguments2.size(); j++) {
-                T2 argument2 = arguments2.get(j);
+            for (int j = 0; j < pointCount; j++) {
+                if (pointFilter >= 0 && pointFilter != i+j*arguments1.size()) {
+                    continue;
+                }
+                T2 argument2 = arguments2.get(j / threadCounts.length);
+                setThreadCount(threadCounts[j % threadCounts.length]);
                 warmupInfos[i+j*arguments1.size()] = warmup(snippet, argument1, argument2);
             }
         }
 
-        for (int i = 0; i < arguments1.size(); i++) {
-            T1 argument1 = arguments1.get(i);
-            String argument1Name = arguments1Names.get(i);
-            for (int j = 0; j < arguments2.size(); j++) {
-                T2 argument2 = arguments2.get(j);
-                String argument2Name = arguments2Names.get(j);
+        // measure row by row, so that printers can write every row of the grid as soon as it is complete
+        for (int j = 0; j < pointCount; j++) {
+            T2 argument2 = arguments2.get(j / threadCounts.length);
+            for (int i = 0; i < arguments1.size(); i++) {
+                if (pointFilter >= 0 && pointFilter != i+j*arguments1.size()) {
+                    continue;
+                }
+                T1 argument1 = arguments1.get(i);
+                setThreadCount(threadCounts[j % threadCounts.length]);
 
                 WarmupInfo warmupInfo = warmupInfos[i+j*arguments1.size()];
-                double[] results = measure(snippet, argument1, argument2, config.getPreWarmupCount(), warmupInfo.warmupCount, warmupInfo.warmupTime);
-                double result = config.resultCalculator.apply(results);
-                config.resultPrinter.printBenchmark(argument1Name, argument2Name, result, results);
+                double[] results = measure(snippet, argument1, argument2, config.getPreWarmupCount(), warmupInfo);
+                resultConsumer.accept(0, i+j*arguments1.size(), results);
             }
         }
-
-        config.resultPrinter.printFinished();
     }
 
-    private WarmupInfo preWarmup(BiConsumer<T1, T2> snippet, T1 argument1, T2 argument2) {
-        return warmup(() -> snippet.accept(argument1, argument2));
+    private WarmupInfo preWarmup(BenchmarkSnippet snippet, T1 argument1, T2 argument2) {
+        return warmup(bindSnippet(snippet, argument1, argument2));
     }
 
-    private WarmupInfo warmup(BiConsumer<T1, T2> snippet, T1 argument1, T2 argument2) {
-        return warmup(() -> snippet.accept(argument1, argument2));
+    private WarmupInfo warmup(BenchmarkSnippet snippet, T1 argument1, T2 argument2) {
+        return warmup(bindSnippet(snippet, argument1, argument2));
     }
 
-    private double[] measure(BiConsumer<T1, T2> snippet, T1 argument1, T2 argument2, int preWarmupCount, int warmupCount, double warmupTime) {
-        return measure(() -> snippet.accept(argument1, argument2), preWarmupCount, warmupCount, warmupTime);
+    private double[] measure(BenchmarkSnippet snippet, T1 argument1, T2 argument2, int preWarmupCount, WarmupInfo warmupInfo) {
+        measureColdCache(warmupInfo, arguments -> snippet.bind(config.blackhole, arguments), argument1, argument2);
+        return measure(bindSnippet(snippet, argument1, argument2), preWarmupCount, warmupInfo);
     }
 }
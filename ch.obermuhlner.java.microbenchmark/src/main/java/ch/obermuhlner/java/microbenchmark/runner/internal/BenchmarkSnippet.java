@@ -0,0 +1,41 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * A benchmark snippet with its own copy of the measurement loop class.
+ */
+public class BenchmarkSnippet {
+    private final int kind;
+    private final Object snippet;
+    private final boolean blackholeArgument;
+    private final Constructor<?> loopConstructor;
+
+    public BenchmarkSnippet(int kind, Object snippet) {
+        this(kind, snippet, false);
+    }
+
+    public BenchmarkSnippet(int kind, Object snippet, boolean blackholeArgument) {
+        this.kind = kind;
+        this.snippet = snippet;
+        this.blackholeArgument = blackholeArgument;
+        this.loopConstructor = SnippetLoopFactory.createLoopConstructor();
+    }
+
+    public SnippetLoop bind(Blackhole blackhole, Object... arguments) {
+        Object[] loopArguments = new Object[3];
+        System.arraycopy(arguments, 0, loopArguments, 0, arguments.length);
+        if (blackholeArgument) {
+            loopArguments[arguments.length] = blackhole;
+        }
+
+        try {
+            return (SnippetLoop) loopConstructor.newInstance(kind, snippet, loopArguments[0], loopArguments[1], loopArguments[2], blackhole);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
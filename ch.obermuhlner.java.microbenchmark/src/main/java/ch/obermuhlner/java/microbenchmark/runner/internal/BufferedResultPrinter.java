@@ -0,0 +1,84 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.printer.ResultPrinter;
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.StatisticsComparison;
+import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records the results of points whose arguments are only known after the measurement,
+ * so that they can be printed after {@link ResultPrinter#printArguments(List)}.
+ */
+class BufferedResultPrinter implements ResultPrinter {
+    private final List<Consumer<ResultPrinter>> results = new ArrayList<>();
+
+    /**
+     * Prints all recorded results in the order they were recorded.
+     */
+    void replay(ResultPrinter resultPrinter) {
+        for (Consumer<ResultPrinter> result : results) {
+            result.accept(resultPrinter);
+        }
+        results.clear();
+    }
+
+    @Override
+    public void setTimeUnit(TimeUnit timeUnit) {
+    }
+
+    @Override
+    public void printDimensions(int count) {
+    }
+
+    @Override
+    public void printNames(List<String> names) {
+    }
+
+    @Override
+    public void printArguments(List<String> arguments) {
+    }
+
+    @Override
+    public void printInfoValue(String name, int value) {
+    }
+
+    @Override
+    public void printInfoValue(String name, double value) {
+    }
+
+    @Override
+    public void printBenchmark(String name, String argument, Statistics statistics) {
+        results.add(printer -> printer.printBenchmark(name, argument, statistics));
+    }
+
+    @Override
+    public void printComparison(String name, String baselineName, String argument, StatisticsComparison comparison) {
+        results.add(printer -> printer.printComparison(name, baselineName, argument, comparison));
+    }
+
+    @Override
+    public void printLatencyPercentiles(String name, String argument, LatencyHistogram histogram) {
+        // the histogram is reused by the next measurement
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(histogram);
+        results.add(printer -> printer.printLatencyPercentiles(name, argument, copy));
+    }
+
+    @Override
+    public void printMetric(String name, String argument, String metric, double value) {
+        results.add(printer -> printer.printMetric(name, argument, metric, value));
+    }
+
+    @Override
+    public void printFinished() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,67 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.CacheHierarchy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Evicts the CPU caches and TLB entries by reading every cache line of an off-heap scratch buffer
+ * that is larger than the last level cache.
+ */
+class CacheEvictor {
+    private static final int LAST_LEVEL_CACHE_FACTOR = 2;
+    private static final int CACHE_LINE_BYTES = 64;
+    private static final int PAGE_BYTES = 4096;
+    private static final int CALIBRATION_RUNS = 3;
+
+    private static CacheEvictor instance;
+
+    final long bufferBytes;
+    final double evictionNanos;
+
+    private final ByteBuffer buffer;
+    private volatile long sink;
+
+    private CacheEvictor(long bufferBytes) {
+        if (bufferBytes <= 0 || bufferBytes > Integer.MAX_VALUE) {
+            throw new RuntimeException("Invalid cache eviction buffer size: " + bufferBytes);
+        }
+        this.bufferBytes = bufferBytes;
+
+        buffer = ByteBuffer.allocateDirect((int) bufferBytes);
+        // touch every page once so that the evictions do not measure page faults
+        for (int i = 0; i < buffer.capacity(); i += PAGE_BYTES) {
+            buffer.put(i, (byte) 1);
+        }
+
+        double minNanos = Double.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            long startNanos = System.nanoTime();
+            evict();
+            minNanos = Math.min(minNanos, System.nanoTime() - startNanos);
+        }
+        evictionNanos = minNanos;
+    }
+
+    /**
+     * Returns the cache evictor with a buffer of the specified size, or twice the last level cache if the size is 0.
+     */
+    static synchronized CacheEvictor getInstance(long bufferBytes) {
+        if (bufferBytes == 0) {
+            bufferBytes = CacheHierarchy.getInstance().getLastLevelCacheBytes() * LAST_LEVEL_CACHE_FACTOR;
+        }
+        if (instance == null || instance.bufferBytes != bufferBytes) {
+            instance = new CacheEvictor(bufferBytes);
+        }
+        return instance;
+    }
+
+    void evict() {
+        long sum = 0;
+        int capacity = buffer.capacity();
+        for (int i = 0; i < capacity; i += CACHE_LINE_BYTES) {
+            sum += buffer.get(i);
+        }
+        sink = sum;
+    }
+}
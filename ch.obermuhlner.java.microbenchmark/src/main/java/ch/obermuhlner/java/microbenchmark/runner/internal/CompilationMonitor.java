@@ -0,0 +1,19 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+class CompilationMonitor {
+    private final CompilationMXBean compilationMXBean = ManagementFactory.getCompilationMXBean();
+
+    boolean isSupported() {
+        return compilationMXBean != null && compilationMXBean.isCompilationTimeMonitoringSupported();
+    }
+
+    long getTotalCompilationMillis() {
+        if (!isSupported()) {
+            return 0;
+        }
+        return compilationMXBean.getTotalCompilationTime();
+    }
+}
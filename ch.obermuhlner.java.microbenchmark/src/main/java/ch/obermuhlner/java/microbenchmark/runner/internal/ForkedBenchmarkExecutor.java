@@ -0,0 +1,153 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs benchmarks in child JVMs.
+ *
+ * Snippets are lambdas that cannot be sent to another JVM,
+ * so the child runs the same main class and skips every {@code run()} except the selected one.
+ * The samples are streamed back over the standard output of the child.
+ */
+public class ForkedBenchmarkExecutor {
+
+    private static final String PROPERTY_PREFIX = "ch.obermuhlner.java.microbenchmark.fork.";
+    private static final String RUN_PROPERTY = PROPERTY_PREFIX + "run";
+    private static final String BENCHMARK_PROPERTY = PROPERTY_PREFIX + "benchmark";
+    private static final String POINT_PROPERTY = PROPERTY_PREFIX + "point";
+
+    private static final String RESULT_PREFIX = "#fork-result ";
+
+    private static final AtomicInteger runCounter = new AtomicInteger();
+
+    private final BenchmarkConfig config;
+    private final int runIndex;
+
+    public ForkedBenchmarkExecutor(BenchmarkConfig config, int runIndex) {
+        this.config = config;
+        this.runIndex = runIndex;
+    }
+
+    public static int nextRunIndex() {
+        return runCounter.getAndIncrement();
+    }
+
+    public static boolean isChild() {
+        return System.getProperty(RUN_PROPERTY) != null;
+    }
+
+    public static boolean isChildRun(int runIndex) {
+        return Integer.getInteger(RUN_PROPERTY, -1) == runIndex;
+    }
+
+    public static int getChildBenchmarkIndex() {
+        return Integer.getInteger(BENCHMARK_PROPERTY, -1);
+    }
+
+    public static int getChildPointIndex() {
+        return Integer.getInteger(POINT_PROPERTY, -1);
+    }
+
+    public static void sendResult(int benchmarkIndex, int pointIndex, double[] results) {
+        StringBuilder line = new StringBuilder(RESULT_PREFIX);
+        line.append(benchmarkIndex).append(' ').append(pointIndex);
+        for (double result : results) {
+            line.append(' ').append(result);
+        }
+        System.out.println(line);
+        System.out.flush();
+    }
+
+    public static void exitChild() {
+        System.out.flush();
+        System.exit(0);
+    }
+
+    public void fork(int benchmarkIndex, int pointIndex, AbstractBenchmarkRunner.PointResultConsumer resultConsumer) {
+        ProcessBuilder processBuilder = new ProcessBuilder(createCommand(benchmarkIndex, pointIndex));
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+
+        try {
+            Process process = processBuilder.start();
+            process.getOutputStream().close();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        String[] tokens = line.substring(RESULT_PREFIX.length()).split(" ");
+                        double[] results = new double[tokens.length - 2];
+                        for (int i = 0; i < results.length; i++) {
+                            results[i] = Double.parseDouble(tokens[i + 2]);
+                        }
+                        resultConsumer.accept(Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]), results);
+                    }
+                }
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new RuntimeException("Forked benchmark JVM failed with exit code " + exitCode);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted");
+        }
+    }
+
+    private List<String> createCommand(int benchmarkIndex, int pointIndex) {
+        List<String> result = new ArrayList<>();
+        result.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        result.addAll(config.getForkJvmArguments());
+        result.add("-D" + RUN_PROPERTY + "=" + runIndex);
+        result.add("-D" + BENCHMARK_PROPERTY + "=" + benchmarkIndex);
+        result.add("-D" + POINT_PROPERTY + "=" + pointIndex);
+        result.add("-cp");
+        result.add(System.getProperty("java.class.path"));
+
+        result.add(getMainClassName());
+        result.addAll(config.getForkMainArguments());
+        return result;
+    }
+
+    /**
+     * Returns the class of the main method from the stack of the main thread.
+     * Falls back to the first token of the java command, which is the main class unless the JVM was started with {@code -jar}.
+     */
+    private static String getMainClassName() {
+        String mainClassName = getMainClassName(Thread.currentThread().getStackTrace());
+        if (mainClassName != null) {
+            return mainClassName;
+        }
+        for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+            if (entry.getKey().getName().equals("main")) {
+                mainClassName = getMainClassName(entry.getValue());
+                if (mainClassName != null) {
+                    return mainClassName;
+                }
+            }
+        }
+
+        String command = System.getProperty("sun.java.command");
+        if (command == null || command.isEmpty() || command.split(" ")[0].endsWith(".jar")) {
+            throw new RuntimeException("Cannot determine main class for forked benchmark JVM");
+        }
+        return command.split(" ")[0];
+    }
+
+    private static String getMainClassName(StackTraceElement[] stackTrace) {
+        if (stackTrace.length == 0) {
+            return null;
+        }
+        StackTraceElement first = stackTrace[stackTrace.length - 1];
+        return first.getMethodName().equals("main") ? first.getClassName() : null;
+    }
+}
@@ -0,0 +1,68 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+class GarbageCollectionMonitor {
+    private static final int MAX_STABILIZE_COLLECTIONS = 10;
+    private static final double STABLE_HEAP_RATIO = 0.01;
+
+    private final List<GarbageCollectorMXBean> garbageCollectorMXBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+    long getCollectionCount() {
+        long result = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : garbageCollectorMXBeans) {
+            long count = garbageCollectorMXBean.getCollectionCount();
+            if (count > 0) {
+                result += count;
+            }
+        }
+        return result;
+    }
+
+    long getCollectionMillis() {
+        long result = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : garbageCollectorMXBeans) {
+            long millis = garbageCollectorMXBean.getCollectionTime();
+            if (millis > 0) {
+                result += millis;
+            }
+        }
+        return result;
+    }
+
+    void collectUntilStable() {
+        long usedBytes = memoryMXBean.getHeapMemoryUsage().getUsed();
+        for (int i = 0; i < MAX_STABILIZE_COLLECTIONS; i++) {
+            long collectionCount = getCollectionCount();
+            System.gc();
+            waitForCollectionsToFinish(collectionCount);
+
+            long lastUsedBytes = usedBytes;
+            usedBytes = memoryMXBean.getHeapMemoryUsage().getUsed();
+            if (Math.abs(usedBytes - lastUsedBytes) <= lastUsedBytes * STABLE_HEAP_RATIO) {
+                return;
+            }
+        }
+    }
+
+    private void waitForCollectionsToFinish(long collectionCountBefore) {
+        // concurrent collectors report their collections asynchronously
+        long lastCollectionCount = collectionCountBefore;
+        for (int i = 0; i < 100; i++) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                throw new RuntimeException("Interrupted");
+            }
+            long collectionCount = getCollectionCount();
+            if (collectionCount > collectionCountBefore && collectionCount == lastCollectionCount) {
+                return;
+            }
+            lastCollectionCount = collectionCount;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+
+import java.util.List;
+
+/**
+ * Measurement loop that calls the setup and tear down hooks around the iterations and invocations of a snippet.
+ *
+ * With invocation hooks every invocation is timed individually with a pair of timestamps,
+ * so that only the time spent in the snippet is measured.
+ */
+public class HookedSnippetLoop implements SnippetLoop {
+    private final SnippetLoop snippetLoop;
+    private final List<Runnable> iterationSetups;
+    private final List<Runnable> iterationTearDowns;
+    private final List<Runnable> invocationSetups;
+    private final List<Runnable> invocationTearDowns;
+    private long allocatedBytes;
+
+    public HookedSnippetLoop(SnippetLoop snippetLoop, List<Runnable> iterationSetups, List<Runnable> iterationTearDowns, List<Runnable> invocationSetups, List<Runnable> invocationTearDowns) {
+        this.snippetLoop = snippetLoop;
+        this.iterationSetups = iterationSetups;
+        this.iterationTearDowns = iterationTearDowns;
+        this.invocationSetups = invocationSetups;
+        this.invocationTearDowns = invocationTearDowns;
+    }
+
+    public SnippetLoop getSnippetLoop() {
+        return snippetLoop;
+    }
+
+    public boolean hasInvocationHooks() {
+        return !invocationSetups.isEmpty() || !invocationTearDowns.isEmpty();
+    }
+
+    public void setupIteration() {
+        runHooks(iterationSetups);
+    }
+
+    public void tearDownIteration() {
+        runHooks(iterationTearDowns);
+    }
+
+    @Override
+    public void run() {
+        runHooks(invocationSetups);
+        try {
+            snippetLoop.run();
+        } finally {
+            runHooks(invocationTearDowns);
+        }
+    }
+
+    @Override
+    public void run(int repeat) {
+        runTimed(repeat, null, 0);
+    }
+
+    @Override
+    public void run(int repeat, LatencyHistogram histogram, int sampleInterval) {
+        runTimed(repeat, histogram, sampleInterval);
+    }
+
+    /**
+     * Runs the snippet and returns the nanoseconds spent in the snippet without the invocation hooks.
+     */
+    public long runTimed(int repeat, LatencyHistogram histogram, int sampleInterval) {
+        return runTimed(repeat, histogram, sampleInterval, null);
+    }
+
+    /**
+     * Runs the snippet and returns the nanoseconds spent in the snippet without the invocation hooks.
+     *
+     * With an allocation counter the bytes allocated by the snippet without the invocation hooks
+     * are available afterwards from {@link #getAllocatedBytes()}.
+     * With invocation hooks the allocations are counted around every single invocation.
+     */
+    long runTimed(int repeat, LatencyHistogram histogram, int sampleInterval, AllocationCounter allocationCounter) {
+        allocatedBytes = 0;
+        if (!hasInvocationHooks()) {
+            long startBytes = allocationCounter != null ? allocationCounter.getCurrentThreadAllocatedBytes() : 0;
+            long startNanos = System.nanoTime();
+            if (histogram == null) {
+                snippetLoop.run(repeat);
+            } else {
+                snippetLoop.run(repeat, histogram, sampleInterval);
+            }
+            long nanos = System.nanoTime() - startNanos;
+            if (allocationCounter != null) {
+                allocatedBytes = allocationCounter.getCurrentThreadAllocatedBytes() - startBytes;
+            }
+            return nanos;
+        }
+
+        long nanos = 0;
+        int untilSample = 0;
+        for (int i = 0; i < repeat; i++) {
+            runHooks(invocationSetups);
+            long startBytes = allocationCounter != null ? allocationCounter.getCurrentThreadAllocatedBytes() : 0;
+            long startNanos = System.nanoTime();
+            snippetLoop.run(1);
+            long invocationNanos = System.nanoTime() - startNanos;
+            if (allocationCounter != null) {
+                allocatedBytes += allocationCounter.getCurrentThreadAllocatedBytes() - startBytes;
+            }
+            runHooks(invocationTearDowns);
+
+            nanos += invocationNanos;
+            if (histogram != null) {
+                if (untilSample == 0) {
+                    untilSample = sampleInterval;
+                    histogram.recordValue(invocationNanos);
+                }
+                untilSample--;
+            }
+        }
+        return nanos;
+    }
+
+    /**
+     * Returns the bytes allocated by the snippet in the last timed run with an allocation counter.
+     */
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private static void runHooks(List<Runnable> hooks) {
+        for (Runnable hook : hooks) {
+            hook.run();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.ArgumentRecycler;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * List of arguments that are created from their values only when they are accessed.
+ *
+ * Only the argument accessed last is kept, accessing another argument releases it first.
+ * If a recycler is specified the released argument is handed to the recycler,
+ * so that the converter can reuse its buffer for the next argument.
+ */
+public class LazyArguments<A, T> extends AbstractList<T> {
+    private final List<A> values;
+    private final BiFunction<A, ArgumentRecycler, T> converter;
+    private final ArgumentRecycler recycler;
+
+    private int currentIndex = -1;
+    private T current;
+
+    public LazyArguments(List<A> values, BiFunction<A, ArgumentRecycler, T> converter, ArgumentRecycler recycler) {
+        this.values = values;
+        this.converter = converter;
+        this.recycler = recycler;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public T get(int index) {
+        if (index != currentIndex) {
+            release();
+            current = converter.apply(values.get(index), recycler);
+            currentIndex = index;
+        }
+        return current;
+    }
+
+    /**
+     * Releases the argument accessed last.
+     */
+    public void release() {
+        if (current != null && recycler != null) {
+            recycler.release(current);
+        }
+        current = null;
+        currentIndex = -1;
+    }
+}
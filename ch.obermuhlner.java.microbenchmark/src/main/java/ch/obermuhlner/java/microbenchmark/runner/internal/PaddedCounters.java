@@ -0,0 +1,23 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+/**
+ * Per-thread long counters spaced far enough apart that no two of them share a cache line.
+ */
+class PaddedCounters {
+    // 16 longs = 128 bytes, covers adjacent cache line prefetching
+    private static final int PADDING = 16;
+
+    private final long[] values;
+
+    PaddedCounters(int count) {
+        values = new long[(count + 2) * PADDING];
+    }
+
+    void set(int index, long value) {
+        values[(index + 1) * PADDING] = value;
+    }
+
+    long get(int index) {
+        return values[(index + 1) * PADDING];
+    }
+}
@@ -0,0 +1,45 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+
+/**
+ * Accumulates the metrics of the measured batches of a point, which are reported next to the result of the point.
+ */
+class PointMetrics {
+    final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    long allocatedBytes;
+    long allocationOperations;
+
+    long garbageCollectionCount;
+    long garbageCollectionMillis;
+    long garbageCollectionOperations;
+    int discardedSampleCount;
+
+    long throughputOperations;
+    long throughputNanos;
+
+    void reset() {
+        latencyHistogram.reset();
+        allocatedBytes = 0;
+        allocationOperations = 0;
+        garbageCollectionCount = 0;
+        garbageCollectionMillis = 0;
+        garbageCollectionOperations = 0;
+        discardedSampleCount = 0;
+        throughputOperations = 0;
+        throughputNanos = 0;
+    }
+
+    void add(PointMetrics other) {
+        latencyHistogram.add(other.latencyHistogram);
+        allocatedBytes += other.allocatedBytes;
+        allocationOperations += other.allocationOperations;
+        garbageCollectionCount += other.garbageCollectionCount;
+        garbageCollectionMillis += other.garbageCollectionMillis;
+        garbageCollectionOperations += other.garbageCollectionOperations;
+        discardedSampleCount += other.discardedSampleCount;
+        throughputOperations += other.throughputOperations;
+        throughputNanos += other.throughputNanos;
+    }
+}
@@ -0,0 +1,53 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+
+/**
+ * Measurement loop that rotates every invocation through the snippet bound to distinct copies of the arguments.
+ *
+ * All loops must be bound to the same snippet, so that the call of the loops stays monomorphic.
+ * The rotation is not thread safe, the loop must only be run by one thread.
+ */
+class RotatingSnippetLoop implements SnippetLoop {
+    private final SnippetLoop[] snippetLoops;
+    private int next;
+
+    RotatingSnippetLoop(SnippetLoop[] snippetLoops) {
+        this.snippetLoops = snippetLoops;
+    }
+
+    @Override
+    public void run() {
+        nextSnippetLoop().run();
+    }
+
+    @Override
+    public void run(int repeat) {
+        for (int i = 0; i < repeat; i++) {
+            nextSnippetLoop().run(1);
+        }
+    }
+
+    @Override
+    public void run(int repeat, LatencyHistogram histogram, int sampleInterval) {
+        int untilSample = 0;
+        for (int i = 0; i < repeat; i++) {
+            if (untilSample == 0) {
+                untilSample = sampleInterval;
+                SnippetLoop snippetLoop = nextSnippetLoop();
+                long invocationStartNanos = System.nanoTime();
+                snippetLoop.run(1);
+                histogram.recordValue(System.nanoTime() - invocationStartNanos);
+            } else {
+                nextSnippetLoop().run(1);
+            }
+            untilSample--;
+        }
+    }
+
+    private SnippetLoop nextSnippetLoop() {
+        SnippetLoop snippetLoop = snippetLoops[next];
+        next = (next + 1) % snippetLoops.length;
+        return snippetLoop;
+    }
+}
@@ -5,10 +5,33 @@ public class SimpleBenchmarkRunner extends AbstractBenchmarkRunner {
         super(config);
     }
 
+    public double measure(BenchmarkSnippet snippet, Object... arguments) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return Double.NaN;
+        }
+
+        double[] result = new double[1];
+        runTrial(() -> result[0] = measure(bindSnippet(snippet, arguments)));
+        return result[0];
+    }
+
     public double measure(Runnable snippet) {
+        if (ForkedBenchmarkExecutor.isChild()) {
+            return Double.NaN;
+        }
+
+        int[] threadCounts = config.getThreadCounts();
+        if (threadCounts.length != 1) {
+            throw new RuntimeException("Can only measure with exactly 1 thread count");
+        }
+        setThreadCount(threadCounts[0]);
+
         AbstractBenchmarkRunner.WarmupInfo warmupInfo = warmup(snippet);
-        double[] results = measure(snippet, config.getPreWarmupCount(), warmupInfo.warmupCount, warmupInfo.warmupTime);
-        double result = config.resultCalculator.apply(results);
+        double[] results = measure(snippet, config.getPreWarmupCount(), warmupInfo);
+        double result = calculateResult(results);
+        if (config.isCorrectHarnessOverhead()) {
+            result = correctHarnessOverhead(result);
+        }
         return result;
     }
 }
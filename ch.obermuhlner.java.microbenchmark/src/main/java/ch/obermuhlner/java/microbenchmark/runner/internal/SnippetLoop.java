@@ -0,0 +1,17 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+
+public interface SnippetLoop extends Runnable {
+    int RUNNABLE = 0;
+    int CONSUMER = 1;
+    int BI_CONSUMER = 2;
+    int TRI_CONSUMER = 3;
+    int SUPPLIER = 4;
+    int FUNCTION = 5;
+    int BI_FUNCTION = 6;
+
+    void run(int repeat);
+
+    void run(int repeat, LatencyHistogram histogram, int sampleInterval);
+}
@@ -0,0 +1,95 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Creates a new copy of {@link SpecializedSnippetLoop} for every benchmark.
+ *
+ * Uses hidden classes on Java 15+ and a new class loader per copy on older versions.
+ */
+class SnippetLoopFactory {
+    private static final Class<?>[] CONSTRUCTOR_PARAMETER_TYPES = { int.class, Object.class, Object.class, Object.class, Object.class, Blackhole.class };
+
+    private static byte[] templateBytes;
+    private static Method defineHiddenClassMethod;
+    private static Object hiddenClassOptions;
+    private static boolean hiddenClassesChecked;
+
+    static Constructor<?> createLoopConstructor() {
+        Class<?> loopClass = createLoopClass();
+        try {
+            return loopClass.getConstructor(CONSTRUCTOR_PARAMETER_TYPES);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static synchronized Class<?> createLoopClass() {
+        byte[] bytes = getTemplateBytes();
+
+        if (isHiddenClassSupported()) {
+            try {
+                MethodHandles.Lookup lookup = (MethodHandles.Lookup) defineHiddenClassMethod.invoke(MethodHandles.lookup(), bytes, true, hiddenClassOptions);
+                return lookup.lookupClass();
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return new LoopClassLoader(SpecializedSnippetLoop.class.getClassLoader()).define(bytes);
+    }
+
+    private static boolean isHiddenClassSupported() {
+        if (!hiddenClassesChecked) {
+            hiddenClassesChecked = true;
+            try {
+                Class<?> classOptionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+                hiddenClassOptions = Array.newInstance(classOptionClass, 0);
+                defineHiddenClassMethod = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, hiddenClassOptions.getClass());
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                defineHiddenClassMethod = null;
+            }
+        }
+        return defineHiddenClassMethod != null;
+    }
+
+    private static byte[] getTemplateBytes() {
+        if (templateBytes == null) {
+            String resourceName = SpecializedSnippetLoop.class.getSimpleName() + ".class";
+            try (InputStream in = SpecializedSnippetLoop.class.getResourceAsStream(resourceName)) {
+                if (in == null) {
+                    throw new RuntimeException("Cannot read class file: " + resourceName);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, n);
+                }
+                templateBytes = out.toByteArray();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return templateBytes;
+    }
+
+    private static class LoopClassLoader extends ClassLoader {
+        LoopClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(byte[] bytes) {
+            return defineClass(SpecializedSnippetLoop.class.getName(), bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.TriConsumer;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Template of the measurement loop.
+ *
+ * The bytecode of this class is copied into a new class for every benchmark (see {@link SnippetLoopFactory}),
+ * so that the call sites in the loop only ever see a single snippet and stay monomorphic.
+ * It must only reference public types because the copies may live in a different class loader.
+ */
+public final class SpecializedSnippetLoop implements SnippetLoop {
+    private final int kind;
+    private final Object snippet;
+    private final Object argument1;
+    private final Object argument2;
+    private final Object argument3;
+    private final Blackhole blackhole;
+
+    public SpecializedSnippetLoop(int kind, Object snippet, Object argument1, Object argument2, Object argument3, Blackhole blackhole) {
+        this.kind = kind;
+        this.snippet = snippet;
+        this.argument1 = argument1;
+        this.argument2 = argument2;
+        this.argument3 = argument3;
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void run() {
+        invoke();
+    }
+
+    @Override
+    public void run(int repeat) {
+        for (int i = 0; i < repeat; i++) {
+            try {
+                invoke();
+            } catch (Exception ex) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    public void run(int repeat, LatencyHistogram histogram, int sampleInterval) {
+        int untilSample = 0;
+        for (int i = 0; i < repeat; i++) {
+            if (untilSample == 0) {
+                untilSample = sampleInterval;
+                long invocationStartNanos = System.nanoTime();
+                try {
+                    invoke();
+                } catch (Exception ex) {
+                    // ignore
+                }
+                histogram.recordValue(System.nanoTime() - invocationStartNanos);
+            } else {
+                try {
+                    invoke();
+                } catch (Exception ex) {
+                    // ignore
+                }
+            }
+            untilSample--;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invoke() {
+        switch (kind) {
+            case RUNNABLE:
+                ((Runnable) snippet).run();
+                break;
+            case CONSUMER:
+                ((Consumer<Object>) snippet).accept(argument1);
+                break;
+            case BI_CONSUMER:
+                ((BiConsumer<Object, Object>) snippet).accept(argument1, argument2);
+                break;
+            case TRI_CONSUMER:
+                ((TriConsumer<Object, Object, Object>) snippet).accept(argument1, argument2, argument3);
+                break;
+            case SUPPLIER:
+                blackhole.consume(((Supplier<Object>) snippet).get());
+                break;
+            case FUNCTION:
+                blackhole.consume(((Function<Object, Object>) snippet).apply(argument1));
+                break;
+            case BI_FUNCTION:
+                blackhole.consume(((BiFunction<Object, Object, Object>) snippet).apply(argument1, argument2));
+                break;
+        }
+    }
+}
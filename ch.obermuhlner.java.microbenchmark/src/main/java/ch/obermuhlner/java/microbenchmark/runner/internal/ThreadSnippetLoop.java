@@ -0,0 +1,49 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Measurement loop with its own snippet loop and blackhole for every benchmark thread,
+ * so that the benchmark threads do not write to the state of a shared blackhole.
+ *
+ * Run directly it runs the snippet loop of the first benchmark thread.
+ */
+class ThreadSnippetLoop implements SnippetLoop {
+    private final Function<Blackhole, SnippetLoop> binder;
+    private final List<SnippetLoop> threadSnippetLoops = new ArrayList<>();
+
+    ThreadSnippetLoop(Blackhole blackhole, Function<Blackhole, SnippetLoop> binder) {
+        this.binder = binder;
+        threadSnippetLoops.add(binder.apply(blackhole));
+    }
+
+    /**
+     * Returns the snippet loop of the benchmark thread, must be called before the benchmark thread is started.
+     */
+    SnippetLoop getThreadSnippetLoop(int threadIndex) {
+        while (threadSnippetLoops.size() <= threadIndex) {
+            threadSnippetLoops.add(binder.apply(new Blackhole()));
+        }
+        return threadSnippetLoops.get(threadIndex);
+    }
+
+    @Override
+    public void run() {
+        threadSnippetLoops.get(0).run();
+    }
+
+    @Override
+    public void run(int repeat) {
+        threadSnippetLoops.get(0).run(repeat);
+    }
+
+    @Override
+    public void run(int repeat, LatencyHistogram histogram, int sampleInterval) {
+        threadSnippetLoops.get(0).run(repeat, histogram, sampleInterval);
+    }
+}
@@ -0,0 +1,54 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+/**
+ * Granularity and latency of {@link System#nanoTime()}, measured once per JVM.
+ */
+class TimerCalibration {
+    private static final int LATENCY_CALLS = 100_000;
+    private static final int GRANULARITY_SAMPLES = 1_000;
+
+    private static TimerCalibration instance;
+    private static volatile long sink;
+
+    final double granularityNanos;
+    final double latencyNanos;
+
+    private TimerCalibration(double granularityNanos, double latencyNanos) {
+        this.granularityNanos = granularityNanos;
+        this.latencyNanos = latencyNanos;
+    }
+
+    static synchronized TimerCalibration getInstance() {
+        if (instance == null) {
+            // first round warms up the calibration loops
+            measureLatency();
+            measureGranularity();
+            instance = new TimerCalibration(measureGranularity(), measureLatency());
+        }
+        return instance;
+    }
+
+    private static double measureLatency() {
+        long sum = 0;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < LATENCY_CALLS; i++) {
+            sum += System.nanoTime();
+        }
+        long endNanos = System.nanoTime();
+        sink = sum;
+        return (double) (endNanos - startNanos) / LATENCY_CALLS;
+    }
+
+    private static double measureGranularity() {
+        long minDelta = Long.MAX_VALUE;
+        for (int i = 0; i < GRANULARITY_SAMPLES; i++) {
+            long startNanos = System.nanoTime();
+            long endNanos;
+            do {
+                endNanos = System.nanoTime();
+            } while (endNanos == startNanos);
+            minDelta = Math.min(minDelta, endNanos - startNanos);
+        }
+        return minDelta;
+    }
+}
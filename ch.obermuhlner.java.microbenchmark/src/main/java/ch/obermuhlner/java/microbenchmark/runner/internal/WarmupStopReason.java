@@ -0,0 +1,10 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+enum WarmupStopReason {
+    None,
+    FirstTimeOnly,
+    SlowSnippet,
+    WarmupCount,
+    WarmupTime,
+    Converged
+}
@@ -0,0 +1,326 @@
+package ch.obermuhlner.java.microbenchmark.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Caches expensive generated benchmark arguments in files of a local directory.
+ *
+ * Every entry is a file {@code <directory>/<generatorId>-<hash>.<type>}, the hash is calculated from
+ * the generator id, the parameters (as string) and the seed of the {@link Random} passed to the generator.
+ * The parameters must be a {@link String} or a boxed primitive, other objects have no stable string representation
+ * and must be converted into a key, for example with the key function of the converters.
+ * Cached entries are memory-mapped, byte buffers are returned zero-copy as read-only mapped buffers,
+ * primitive arrays are bulk copied from the mapped file.
+ *
+ * Whenever an entry is stored, the least recently used entries are deleted until the total size of the cache
+ * is below the maximum size.
+ */
+public class ArgumentCache {
+
+    public static final String DEFAULT_DIRECTORY = "argument-cache";
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    private static final String FILE_GLOB = "*.{int,long,double,byte}";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    public ArgumentCache(String directory) {
+        this(Paths.get(directory));
+    }
+
+    public ArgumentCache(Path directory) {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+
+    public ArgumentCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public int[] intArray(String generatorId, Object parameters, long seed, Function<Random, int[]> generator) {
+        Path file = entryFile(generatorId, parameters, seed, "int");
+        ByteBuffer cached = load(file);
+        if (cached != null) {
+            int[] result = new int[cached.capacity() / Integer.BYTES];
+            cached.order(ByteOrder.nativeOrder()).asIntBuffer().get(result);
+            return result;
+        }
+
+        int[] result = generator.apply(new Random(seed));
+        ByteBuffer buffer = allocate(result.length, Integer.BYTES);
+        buffer.asIntBuffer().put(result);
+        store(file, buffer);
+        return result;
+    }
+
+    public long[] longArray(String generatorId, Object parameters, long seed, Function<Random, long[]> generator) {
+        Path file = entryFile(generatorId, parameters, seed, "long");
+        ByteBuffer cached = load(file);
+        if (cached != null) {
+            long[] result = new long[cached.capacity() / Long.BYTES];
+            cached.order(ByteOrder.nativeOrder()).asLongBuffer().get(result);
+            return result;
+        }
+
+        long[] result = generator.apply(new Random(seed));
+        ByteBuffer buffer = allocate(result.length, Long.BYTES);
+        buffer.asLongBuffer().put(result);
+        store(file, buffer);
+        return result;
+    }
+
+    public double[] doubleArray(String generatorId, Object parameters, long seed, Function<Random, double[]> generator) {
+        Path file = entryFile(generatorId, parameters, seed, "double");
+        ByteBuffer cached = load(file);
+        if (cached != null) {
+            double[] result = new double[cached.capacity() / Double.BYTES];
+            cached.order(ByteOrder.nativeOrder()).asDoubleBuffer().get(result);
+            return result;
+        }
+
+        double[] result = generator.apply(new Random(seed));
+        ByteBuffer buffer = allocate(result.length, Double.BYTES);
+        buffer.asDoubleBuffer().put(result);
+        store(file, buffer);
+        return result;
+    }
+
+    public byte[] byteArray(String generatorId, Object parameters, long seed, Function<Random, byte[]> generator) {
+        Path file = entryFile(generatorId, parameters, seed, "byte");
+        ByteBuffer cached = load(file);
+        if (cached != null) {
+            byte[] result = new byte[cached.capacity()];
+            cached.get(result);
+            return result;
+        }
+
+        byte[] result = generator.apply(new Random(seed));
+        store(file, ByteBuffer.wrap(result));
+        return result;
+    }
+
+    /**
+     * Returns the bytes between position and limit of the generated buffer as read-only memory-mapped buffer.
+     */
+    public ByteBuffer byteBuffer(String generatorId, Object parameters, long seed, Function<Random, ByteBuffer> generator) {
+        Path file = entryFile(generatorId, parameters, seed, "byte");
+        ByteBuffer cached = load(file);
+        if (cached != null) {
+            return cached;
+        }
+
+        store(file, generator.apply(new Random(seed)).duplicate());
+        return load(file);
+    }
+
+    /**
+     * Returns a converter for {@code forLoop()}, {@code forLazyLoop()} or a stream of {@code forArguments()}
+     * that caches the generated argument for every parameter.
+     */
+    public <P> Function<P, int[]> intArrays(String generatorId, long seed, BiFunction<P, Random, int[]> generator) {
+        return parameters -> intArray(generatorId, parameters, seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, long[]> longArrays(String generatorId, long seed, BiFunction<P, Random, long[]> generator) {
+        return parameters -> longArray(generatorId, parameters, seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, double[]> doubleArrays(String generatorId, long seed, BiFunction<P, Random, double[]> generator) {
+        return parameters -> doubleArray(generatorId, parameters, seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, byte[]> byteArrays(String generatorId, long seed, BiFunction<P, Random, byte[]> generator) {
+        return parameters -> byteArray(generatorId, parameters, seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, ByteBuffer> byteBuffers(String generatorId, long seed, BiFunction<P, Random, ByteBuffer> generator) {
+        return parameters -> byteBuffer(generatorId, parameters, seed, random -> generator.apply(parameters, random));
+    }
+
+    /**
+     * Returns a converter that caches the generated argument under the key calculated by the key function,
+     * for parameters that are not a {@link String} or a boxed primitive.
+     */
+    public <P> Function<P, int[]> intArrays(String generatorId, long seed, Function<P, String> keyFunction, BiFunction<P, Random, int[]> generator) {
+        return parameters -> intArray(generatorId, keyFunction.apply(parameters), seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, long[]> longArrays(String generatorId, long seed, Function<P, String> keyFunction, BiFunction<P, Random, long[]> generator) {
+        return parameters -> longArray(generatorId, keyFunction.apply(parameters), seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, double[]> doubleArrays(String generatorId, long seed, Function<P, String> keyFunction, BiFunction<P, Random, double[]> generator) {
+        return parameters -> doubleArray(generatorId, keyFunction.apply(parameters), seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, byte[]> byteArrays(String generatorId, long seed, Function<P, String> keyFunction, BiFunction<P, Random, byte[]> generator) {
+        return parameters -> byteArray(generatorId, keyFunction.apply(parameters), seed, random -> generator.apply(parameters, random));
+    }
+
+    public <P> Function<P, ByteBuffer> byteBuffers(String generatorId, long seed, Function<P, String> keyFunction, BiFunction<P, Random, ByteBuffer> generator) {
+        return parameters -> byteBuffer(generatorId, keyFunction.apply(parameters), seed, random -> generator.apply(parameters, random));
+    }
+
+    /**
+     * Deletes all entries of the cache.
+     */
+    public void clear() {
+        for (Path file : entryFiles()) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private Path entryFile(String generatorId, Object parameters, long seed, String type) {
+        if (!isStableKey(parameters)) {
+            throw new RuntimeException("Argument cache parameters must be a String or a boxed primitive, use a key function for " + (parameters == null ? "null" : parameters.getClass().getName()));
+        }
+        String key = generatorId + "\n" + parameters + "\n" + seed;
+        return directory.resolve(toFileName(generatorId) + "-" + hash(key) + "." + type);
+    }
+
+    private static boolean isStableKey(Object parameters) {
+        return parameters instanceof String
+                || parameters instanceof Integer
+                || parameters instanceof Long
+                || parameters instanceof Double
+                || parameters instanceof Float
+                || parameters instanceof Short
+                || parameters instanceof Byte
+                || parameters instanceof Character
+                || parameters instanceof Boolean;
+    }
+
+    /**
+     * Maps the entry file and marks it as recently used, returns {@code null} if the entry is not cached.
+     */
+    private static ByteBuffer load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void store(Path file, ByteBuffer data) {
+        try {
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, "entry", ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // only left over if writing or moving failed
+                Files.deleteIfExists(tempFile);
+            }
+            evict(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void evict(Path keepFile) {
+        Map<Path, Long> fileToBytes = new HashMap<>();
+        Map<Path, FileTime> fileToLastUsed = new HashMap<>();
+        long totalBytes = 0;
+        for (Path file : entryFiles()) {
+            try {
+                long bytes = Files.size(file);
+                fileToBytes.put(file, bytes);
+                fileToLastUsed.put(file, Files.getLastModifiedTime(file));
+                totalBytes += bytes;
+            } catch (IOException e) {
+                // deleted concurrently
+            }
+        }
+
+        List<Path> files = new ArrayList<>(fileToBytes.keySet());
+        files.sort(Comparator.comparing(fileToLastUsed::get));
+        for (Path file : files) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            if (file.equals(keepFile)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+                totalBytes -= fileToBytes.get(file);
+            } catch (IOException e) {
+                // still in use
+            }
+        }
+    }
+
+    private List<Path> entryFiles() {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_GLOB)) {
+            for (Path file : files) {
+                result.add(file);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    private static ByteBuffer allocate(int length, int elementBytes) {
+        if ((long) length * elementBytes > Integer.MAX_VALUE) {
+            throw new RuntimeException("Argument too large to cache: " + length + " elements");
+        }
+        return ByteBuffer.allocate(length * elementBytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                result.append(String.format("%02x", digest[i]));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,31 @@
+package ch.obermuhlner.java.microbenchmark.store;
+
+/**
+ * Compares the latest two stored runs of a benchmark suite and exits with a non-zero status if anything regressed.
+ *
+ * Usage: {@code RegressionCheck <store directory> <suite> [threshold]}
+ */
+public class RegressionCheck {
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: RegressionCheck <store directory> <suite> [threshold]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : RegressionReport.DEFAULT_THRESHOLD;
+        System.exit(check(new ResultStore(args[0]), args[1], threshold));
+    }
+
+    /**
+     * Returns 0 if the latest run of the suite did not regress compared to the run before, 1 otherwise.
+     */
+    public static int check(ResultStore store, String suite, double threshold) {
+        RegressionReport report = store.compareLatest(suite, threshold);
+        if (report == null) {
+            System.out.println("No baseline run for " + suite);
+            return 0;
+        }
+        report.print(System.out);
+        return report.getExitStatus();
+    }
+}
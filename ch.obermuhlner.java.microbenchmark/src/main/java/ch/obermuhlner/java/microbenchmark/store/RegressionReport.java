@@ -0,0 +1,171 @@
+package ch.obermuhlner.java.microbenchmark.store;
+
+import ch.obermuhlner.java.microbenchmark.runner.StatisticsComparison;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compares a run of a benchmark suite with a baseline run.
+ *
+ * A benchmark point has regressed if its result is slower than the baseline by more than the threshold
+ * and the difference is statistically significant.
+ */
+public class RegressionReport {
+
+    public static final double DEFAULT_THRESHOLD = 0.05;
+
+    private final StoredRun baseline;
+    private final StoredRun current;
+    private final double threshold;
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<String> environmentDifferences = new ArrayList<>();
+
+    public RegressionReport(StoredRun baseline, StoredRun current, double threshold) {
+        this.baseline = baseline;
+        this.current = current;
+        this.threshold = threshold;
+
+        for (StoredResult result : current.getResults()) {
+            StoredResult baselineResult = baseline.getResult(result.getName(), result.getArgument());
+            if (baselineResult != null) {
+                StatisticsComparison comparison = result.toStatistics().compare(baselineResult.toStatistics());
+                entries.add(new Entry(result.getName(), result.getArgument(), baselineResult.getResult(), result.getResult(), comparison, threshold));
+            }
+        }
+
+        for (String key : StoredRun.COMPARED_ENVIRONMENT_KEYS) {
+            String baselineValue = baseline.getEnvironment().get(key);
+            String currentValue = current.getEnvironment().get(key);
+            if (!Objects.equals(baselineValue, currentValue)) {
+                environmentDifferences.add(key + ": " + baselineValue + " -> " + currentValue);
+            }
+        }
+    }
+
+    public StoredRun getBaseline() {
+        return baseline;
+    }
+
+    public StoredRun getCurrent() {
+        return current;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public List<Entry> getRegressions() {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.isRegression()) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public List<String> getEnvironmentDifferences() {
+        return Collections.unmodifiableList(environmentDifferences);
+    }
+
+    public boolean hasRegressions() {
+        return !getRegressions().isEmpty();
+    }
+
+    /**
+     * Returns the exit status for a CI build: 0 if nothing regressed, 1 otherwise.
+     */
+    public int getExitStatus() {
+        return hasRegressions() ? 1 : 0;
+    }
+
+    public void print(PrintStream out) {
+        out.println("Comparing " + current.getSuite() + " run " + current.getRunId() + " with baseline run " + baseline.getRunId());
+        for (String difference : environmentDifferences) {
+            out.println("  environment changed " + difference);
+        }
+        for (Entry entry : entries) {
+            String status;
+            if (entry.isRegression()) {
+                status = "REGRESSION";
+            } else if (entry.isImprovement()) {
+                status = "improvement";
+            } else {
+                status = "";
+            }
+            out.println(String.format("%-40s %30s %16.1f -> %16.1f %+7.1f%% (p=%.3f) %s",
+                    entry.getName(),
+                    entry.getArgument(),
+                    entry.getBaselineResult(),
+                    entry.getResult(),
+                    entry.getChange() * 100,
+                    entry.getComparison().getMannWhitneyPValue(),
+                    status));
+        }
+        out.println(getRegressions().size() + " regressions");
+    }
+
+    public static class Entry {
+        private final String name;
+        private final String argument;
+        private final double baselineResult;
+        private final double result;
+        private final StatisticsComparison comparison;
+        private final double threshold;
+
+        Entry(String name, String argument, double baselineResult, double result, StatisticsComparison comparison, double threshold) {
+            this.name = name;
+            this.argument = argument;
+            this.baselineResult = baselineResult;
+            this.result = result;
+            this.comparison = comparison;
+            this.threshold = threshold;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getArgument() {
+            return argument;
+        }
+
+        public double getBaselineResult() {
+            return baselineResult;
+        }
+
+        public double getResult() {
+            return result;
+        }
+
+        public StatisticsComparison getComparison() {
+            return comparison;
+        }
+
+        /**
+         * Returns the relative change of the result compared to the baseline (positive values are slower).
+         */
+        public double getChange() {
+            if (baselineResult == 0) {
+                return 0;
+            }
+            return result / baselineResult - 1;
+        }
+
+        public boolean isRegression() {
+            return getChange() > threshold && comparison.isSignificant();
+        }
+
+        public boolean isImprovement() {
+            return getChange() < -threshold && comparison.isSignificant();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package ch.obermuhlner.java.microbenchmark.store;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the runs of benchmark suites in a local directory.
+ *
+ * Every run is a text file {@code <directory>/<suite>/<runId>.txt}
+ * with the environment and all samples of every benchmark point.
+ */
+public class ResultStore {
+
+    private static final String FILE_EXTENSION = ".txt";
+    private static final String HEADER = "# java-microbenchmark results";
+
+    private final Path directory;
+
+    public ResultStore(String directory) {
+        this(Paths.get(directory));
+    }
+
+    public ResultStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public void save(StoredRun run) {
+        Path suiteDirectory = directory.resolve(toFileName(run.getSuite()));
+        Path file = suiteDirectory.resolve(toFileName(run.getRunId()) + FILE_EXTENSION);
+        try {
+            Files.createDirectories(suiteDirectory);
+            Path tempFile = Files.createTempFile(suiteDirectory, "run", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                writeLine(writer, "suite", run.getSuite());
+                writeLine(writer, "run", run.getRunId());
+                for (Map.Entry<String, String> entry : run.getEnvironment().entrySet()) {
+                    writeLine(writer, "env", entry.getKey(), entry.getValue());
+                }
+                for (StoredResult result : run.getResults()) {
+                    StringBuilder line = new StringBuilder("result");
+                    line.append('\t').append(escape(result.getName()));
+                    line.append('\t').append(escape(result.getArgument()));
+                    line.append('\t').append(result.getResult());
+                    for (double sample : result.getSamples()) {
+                        line.append('\t').append(sample);
+                    }
+                    writer.write(line.toString());
+                    writer.newLine();
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the ids of all stored runs of a suite, oldest first.
+     */
+    public List<String> getRunIds(String suite) {
+        Path suiteDirectory = directory.resolve(toFileName(suite));
+        List<String> result = new ArrayList<>();
+        if (!Files.isDirectory(suiteDirectory)) {
+            return result;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(suiteDirectory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                result.add(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public StoredRun load(String suite, String runId) {
+        Path file = directory.resolve(toFileName(suite)).resolve(toFileName(runId) + FILE_EXTENSION);
+        StoredRun run = new StoredRun(suite, runId);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\t", -1);
+                switch (tokens[0]) {
+                    case "env":
+                        run.putEnvironment(unescape(tokens[1]), unescape(tokens[2]));
+                        break;
+                    case "result":
+                        double[] samples = new double[tokens.length - 4];
+                        for (int i = 0; i < samples.length; i++) {
+                            samples[i] = Double.parseDouble(tokens[i + 4]);
+                        }
+                        run.addResult(new StoredResult(unescape(tokens[1]), unescape(tokens[2]), Double.parseDouble(tokens[3]), samples));
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return run;
+    }
+
+    /**
+     * Returns the latest stored run of a suite or {@code null} if there is none.
+     */
+    public StoredRun loadLatest(String suite) {
+        List<String> runIds = getRunIds(suite);
+        if (runIds.isEmpty()) {
+            return null;
+        }
+        return load(suite, runIds.get(runIds.size() - 1));
+    }
+
+    /**
+     * Compares the latest run of a suite with the run before.
+     */
+    public RegressionReport compareLatest(String suite, double threshold) {
+        List<String> runIds = getRunIds(suite);
+        if (runIds.size() < 2) {
+            return null;
+        }
+        StoredRun baseline = load(suite, runIds.get(runIds.size() - 2));
+        StoredRun current = load(suite, runIds.get(runIds.size() - 1));
+        return new RegressionReport(baseline, current, threshold);
+    }
+
+    private static void writeLine(BufferedWriter writer, String... tokens) throws IOException {
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0) {
+                writer.write('\t');
+            }
+            writer.write(i == 0 ? tokens[i] : escape(tokens[i]));
+        }
+        writer.newLine();
+    }
+
+    private static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                i++;
+                switch (value.charAt(i)) {
+                    case 't':
+                        result.append('\t');
+                        break;
+                    case 'n':
+                        result.append('\n');
+                        break;
+                    case 'r':
+                        result.append('\r');
+                        break;
+                    default:
+                        result.append(value.charAt(i));
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
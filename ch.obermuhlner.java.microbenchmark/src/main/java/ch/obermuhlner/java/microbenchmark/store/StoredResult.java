@@ -0,0 +1,40 @@
+package ch.obermuhlner.java.microbenchmark.store;
+
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+
+/**
+ * The result and all samples of a single benchmark point in a {@link StoredRun}.
+ */
+public class StoredResult {
+    private final String name;
+    private final String argument;
+    private final double result;
+    private final double[] samples;
+
+    public StoredResult(String name, String argument, double result, double[] samples) {
+        this.name = name;
+        this.argument = argument;
+        this.result = result;
+        this.samples = samples.clone();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getArgument() {
+        return argument;
+    }
+
+    public double getResult() {
+        return result;
+    }
+
+    public double[] getSamples() {
+        return samples.clone();
+    }
+
+    public Statistics toStatistics() {
+        return new Statistics(samples, result);
+    }
+}
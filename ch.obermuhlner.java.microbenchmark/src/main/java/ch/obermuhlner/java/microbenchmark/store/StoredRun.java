@@ -0,0 +1,86 @@
+package ch.obermuhlner.java.microbenchmark.store;
+
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All results of one run of a benchmark suite together with the environment it ran in.
+ */
+public class StoredRun {
+
+    public static final String ENVIRONMENT_TIME_UNIT = "timeUnit";
+
+    static final String[] COMPARED_ENVIRONMENT_KEYS = {
+            "java.version",
+            "java.vm.name",
+            "os.arch",
+            "availableProcessors",
+            "jvmArguments",
+            ENVIRONMENT_TIME_UNIT
+    };
+
+    private final String suite;
+    private final String runId;
+    private final Map<String, String> environment = new LinkedHashMap<>();
+    private final List<StoredResult> results = new ArrayList<>();
+
+    public StoredRun(String suite, String runId) {
+        this.suite = suite;
+        this.runId = runId;
+    }
+
+    /**
+     * Creates a new run with a time based id and the environment of the current JVM.
+     */
+    public static StoredRun createCurrent(String suite) {
+        String runId = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        StoredRun run = new StoredRun(suite, runId);
+
+        for (String property : new String[] { "java.version", "java.vendor", "java.vm.name", "java.vm.version", "os.name", "os.version", "os.arch" }) {
+            run.putEnvironment(property, System.getProperty(property, ""));
+        }
+        run.putEnvironment("availableProcessors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        run.putEnvironment("maxMemory", String.valueOf(Runtime.getRuntime().maxMemory()));
+        run.putEnvironment("jvmArguments", String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        return run;
+    }
+
+    public String getSuite() {
+        return suite;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public Map<String, String> getEnvironment() {
+        return Collections.unmodifiableMap(environment);
+    }
+
+    public void putEnvironment(String key, String value) {
+        environment.put(key, value);
+    }
+
+    public List<StoredResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    public void addResult(StoredResult result) {
+        results.add(result);
+    }
+
+    public StoredResult getResult(String name, String argument) {
+        for (StoredResult result : results) {
+            if (result.getName().equals(name) && result.getArgument().equals(argument)) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import ch.obermuhlner.java.microbenchmark.runner.LatencyHistogram;
+import ch.obermuhlner.java.microbenchmark.runner.Statistics;
+import ch.obermuhlner.java.microbenchmark.runner.TimeUnit;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BinaryResultPrinterTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random random = new Random(1234);
+        double[] samples = new double[1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = 100 + random.nextGaussian();
+        }
+        Statistics statistics = new Statistics(samples, 100.5);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordValue(i * 10L);
+        }
+
+        Path file = Files.createTempFile("benchmark", ".bin");
+        try {
+            BinaryResultPrinter printer = new BinaryResultPrinter(file.toString());
+            printer.setTimeUnit(TimeUnit.MicroSeconds);
+            printer.printDimensions(1);
+            printer.printNames(Arrays.asList("sort", "copy"));
+            printer.printArguments(Arrays.asList("10", "100"));
+            printer.printBenchmark("sort", "10", statistics);
+            printer.printLatencyPercentiles("sort", "10", histogram);
+            printer.printMetric("sort", "10", "bytes/op", 16.0);
+            printer.close();
+
+            BinaryResultReader reader = new BinaryResultReader(file.toString());
+            assertEquals(1, reader.getDimensions());
+            assertEquals(TimeUnit.MicroSeconds, reader.getTimeUnit());
+            assertEquals(Arrays.asList("sort", "copy"), reader.getNames());
+            assertEquals(Arrays.asList("10", "100"), reader.getArguments());
+
+            assertEquals(1, reader.getSampleBlocks().size());
+            BinaryResultReader.SampleBlock sampleBlock = reader.getSampleBlocks().get(0);
+            assertEquals("sort", sampleBlock.getName());
+            assertEquals("10", sampleBlock.getArgument());
+            assertEquals(100.5, sampleBlock.getResult(), 0);
+            assertArrayEquals(sorted(samples), sorted(sampleBlock.getSamples()), 0);
+            Statistics readStatistics = sampleBlock.toStatistics();
+            assertEquals(statistics.getMean(), readStatistics.getMean(), 1e-9);
+            assertEquals(statistics.getMedian(), readStatistics.getMedian(), 1e-9);
+
+            assertEquals(1, reader.getHistogramBlocks().size());
+            LatencyHistogram readHistogram = reader.getHistogramBlocks().get(0).toLatencyHistogram();
+            assertEquals(histogram.getTotalCount(), readHistogram.getTotalCount());
+            for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+                assertEquals(histogram.getValueAtPercentile(percentile), readHistogram.getValueAtPercentile(percentile));
+            }
+
+            assertEquals(1, reader.getMetricBlocks().size());
+            BinaryResultReader.MetricBlock metricBlock = reader.getMetricBlocks().get(0);
+            assertEquals("sort", metricBlock.getName());
+            assertEquals("10", metricBlock.getArgument());
+            assertEquals("bytes/op", metricBlock.getMetric());
+            assertEquals(16.0, metricBlock.getValue(), 0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static double[] sorted(double[] values) {
+        double[] result = values.clone();
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static double[] sorted(DoubleBuffer buffer) {
+        double[] result = new double[buffer.remaining()];
+        buffer.duplicate().get(result);
+        Arrays.sort(result);
+        return result;
+    }
+}
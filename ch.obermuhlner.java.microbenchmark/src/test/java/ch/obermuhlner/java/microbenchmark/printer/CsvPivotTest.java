@@ -0,0 +1,56 @@
+package ch.obermuhlner.java.microbenchmark.printer;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvPivotTest {
+
+    @Test
+    public void testParseCsvLine() {
+        assertEquals(Arrays.asList("a", "b", "c"), CsvPivot.parseCsvLine("a,b,c"));
+        assertEquals(Arrays.asList("a", "b", "c"), CsvPivot.parseCsvLine("  a ,  b,c  "));
+        assertEquals(Arrays.asList("a", "", ""), CsvPivot.parseCsvLine("a,,"));
+        assertEquals(Collections.singletonList(""), CsvPivot.parseCsvLine(""));
+    }
+
+    @Test
+    public void testParseCsvLineQuoted() {
+        assertEquals(Arrays.asList("x, y", "z"), CsvPivot.parseCsvLine("\"x, y\",z"));
+        assertEquals(Arrays.asList("say \"hi\"", "1.5"), CsvPivot.parseCsvLine("\"say \"\"hi\"\"\",1.5"));
+        assertEquals(Arrays.asList("", "b"), CsvPivot.parseCsvLine("\"\",b"));
+    }
+
+    @Test
+    public void testPivot() throws IOException {
+        String longCsv = ""
+                + "# timeUnit=ns\n"
+                + "name, size, metric, value\n"
+                + "sort, 10, result, 100.0\n"
+                + "sort, 10, bytes/op, 16.0\n"
+                + "\"copy\", 10, result, 50.0\n"
+                + "sort, 20, result, 250.0\n"
+                + "\"copy\", 20, result, 75.0\n"
+                + "sort, 30, res";
+
+        StringWriter wide = new StringWriter();
+        try (PrintWriter out = new PrintWriter(wide)) {
+            CsvPivot.pivot(new BufferedReader(new StringReader(longCsv)), out);
+        }
+
+        String[] lines = wide.toString().split("\\R");
+        assertEquals(4, lines.length);
+        assertEquals("# timeUnit=ns", lines[0]);
+        assertEquals(Arrays.asList("size", "sort", "copy", "sort bytes/op", "copy bytes/op"), CsvPivot.parseCsvLine(lines[1]));
+        assertEquals(Arrays.asList("10", "100.0", "50.0", "16.0", ""), CsvPivot.parseCsvLine(lines[2]));
+        assertEquals(Arrays.asList("20", "250.0", "75.0", "", ""), CsvPivot.parseCsvLine(lines[3]));
+    }
+}
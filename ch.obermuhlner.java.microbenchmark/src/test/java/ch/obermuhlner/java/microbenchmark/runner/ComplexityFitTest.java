@@ -0,0 +1,110 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ComplexityFitTest {
+
+    private static final double[] SIZES = { 1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 2048, 4096 };
+
+    @Test
+    public void testConstant() {
+        ComplexityFit fit = fit(n -> 42);
+
+        assertEquals(ComplexityModel.Constant, fit.getBestFit().getModel());
+        assertEquals(42.0, fit.getBestFit().getConstant(), 1e-9);
+        assertEquals(0, fit.getInflectionPoints().size());
+    }
+
+    @Test
+    public void testLogarithmic() {
+        ComplexityFit fit = fit(n -> 10 + 3 * Math.log(n));
+
+        assertEquals(ComplexityModel.Logarithmic, fit.getBestFit().getModel());
+        assertEquals(10.0, fit.getBestFit().getConstant(), 1e-6);
+        assertEquals(3.0, fit.getBestFit().getCoefficient(), 1e-6);
+    }
+
+    @Test
+    public void testLinear() {
+        ComplexityFit fit = fit(n -> 5 + 2 * n);
+
+        assertEquals(ComplexityModel.Linear, fit.getBestFit().getModel());
+        assertEquals(5.0, fit.getBestFit().getConstant(), 1e-6);
+        assertEquals(2.0, fit.getBestFit().getCoefficient(), 1e-6);
+        assertEquals(1.0, fit.getBestFit().getRSquared(), 1e-9);
+        assertEquals(2005.0, fit.getBestFit().predict(1000), 1e-6);
+    }
+
+    @Test
+    public void testLinearithmic() {
+        ComplexityFit fit = fit(n -> 0.5 * n * Math.log(n));
+
+        assertEquals(ComplexityModel.Linearithmic, fit.getBestFit().getModel());
+        assertEquals(0.5, fit.getBestFit().getCoefficient(), 1e-6);
+    }
+
+    @Test
+    public void testQuadratic() {
+        ComplexityFit fit = fit(n -> 7 * n * n);
+
+        assertEquals(ComplexityModel.Quadratic, fit.getBestFit().getModel());
+        assertEquals(7.0, fit.getBestFit().getCoefficient(), 1e-6);
+    }
+
+    @Test
+    public void testPowerLaw() {
+        ComplexityFit fit = fit(n -> 3 * Math.pow(n, 1.5));
+
+        assertEquals(ComplexityModel.PowerLaw, fit.getBestFit().getModel());
+        assertEquals(3.0, fit.getBestFit().getConstant(), 1e-6);
+        assertEquals(1.5, fit.getBestFit().getCoefficient(), 1e-6);
+    }
+
+    @Test
+    public void testNoisyLinear() {
+        Random random = new Random(1234);
+        ComplexityFit fit = fit(n -> 100 + n * (1 + 0.05 * random.nextGaussian()));
+
+        assertEquals(ComplexityModel.Linear, fit.getBestFit().getModel());
+        assertEquals(1.0, fit.getBestFit().getCoefficient(), 0.1);
+    }
+
+    @Test
+    public void testInflectionPoint() {
+        // linear up to 256, quadratic above
+        ComplexityFit fit = fit(n -> n <= 256 ? n : n * n / 256);
+
+        assertEquals(1, fit.getInflectionPoints().size());
+        ComplexityFit.InflectionPoint inflectionPoint = fit.getInflectionPoints().get(0);
+        assertEquals(512.0, inflectionPoint.getArgument(), 0);
+        assertEquals(1.0, inflectionPoint.getSlopeBefore(), 1e-6);
+        assertEquals(2.0, inflectionPoint.getSlopeAfter(), 1e-6);
+    }
+
+    @Test
+    public void testArgumentsAreSortedAndNonPositiveIgnored() {
+        ComplexityFit fit = new ComplexityFit(new double[] { 4, 0, 1, -1, 2 }, new double[] { 40, 99, 10, 99, 20 });
+
+        assertArrayEquals(new double[] { 1, 2, 4 }, fit.getArguments(), 0);
+        assertArrayEquals(new double[] { 10, 20, 40 }, fit.getResults(), 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testTooFewArguments() {
+        new ComplexityFit(new double[] { 1, 2 }, new double[] { 1, 2 });
+    }
+
+    private static ComplexityFit fit(DoubleUnaryOperator function) {
+        double[] results = new double[SIZES.length];
+        for (int i = 0; i < SIZES.length; i++) {
+            results[i] = function.applyAsDouble(SIZES[i]);
+        }
+        return new ComplexityFit(SIZES, results);
+    }
+}
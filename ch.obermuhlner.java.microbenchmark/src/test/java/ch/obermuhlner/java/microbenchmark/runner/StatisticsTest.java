@@ -0,0 +1,123 @@
+package ch.obermuhlner.java.microbenchmark.runner;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StatisticsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testDescriptiveStatistics() {
+        Statistics statistics = new Statistics(new double[] { 9, 2, 4, 4, 5, 4, 7, 5 }, 4.0);
+
+        assertEquals(8, statistics.getCount());
+        assertEquals(4.0, statistics.getResult(), EPSILON);
+        assertEquals(2.0, statistics.getMin(), EPSILON);
+        assertEquals(9.0, statistics.getMax(), EPSILON);
+        assertEquals(5.0, statistics.getMean(), EPSILON);
+        assertEquals(4.5, statistics.getMedian(), EPSILON);
+        assertEquals(Math.sqrt(32.0 / 7), statistics.getStandardDeviation(), EPSILON);
+    }
+
+    @Test
+    public void testEmpty() {
+        Statistics statistics = new Statistics(new double[0], 0);
+
+        assertEquals(0, statistics.getCount());
+        assertEquals(0.0, statistics.getMean(), EPSILON);
+        assertEquals(0.0, statistics.getStandardDeviation(), EPSILON);
+        assertEquals(0.0, statistics.getRelativeError(), EPSILON);
+    }
+
+    @Test
+    public void testConfidenceIntervalOfConstantSamples() {
+        Statistics statistics = new Statistics(new double[] { 3, 3, 3, 3, 3 }, 3);
+
+        assertEquals(3.0, statistics.getMeanConfidenceLower(), EPSILON);
+        assertEquals(3.0, statistics.getMeanConfidenceUpper(), EPSILON);
+        assertEquals(3.0, statistics.getMedianConfidenceLower(), EPSILON);
+        assertEquals(3.0, statistics.getMedianConfidenceUpper(), EPSILON);
+        assertEquals(0.0, statistics.getRelativeError(), EPSILON);
+    }
+
+    @Test
+    public void testBootstrapConfidenceIntervalIsSeeded() {
+        double[] samples = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+        Statistics statistics1 = new Statistics(samples, 5.5);
+        Statistics statistics2 = new Statistics(samples, 5.5);
+
+        assertEquals(statistics1.getMeanConfidenceLower(), statistics2.getMeanConfidenceLower(), 0);
+        assertEquals(statistics1.getMeanConfidenceUpper(), statistics2.getMeanConfidenceUpper(), 0);
+        assertEquals(statistics1.getMedianConfidenceLower(), statistics2.getMedianConfidenceLower(), 0);
+        assertEquals(statistics1.getMedianConfidenceUpper(), statistics2.getMedianConfidenceUpper(), 0);
+
+        assertEquals(3.6, statistics1.getMeanConfidenceLower(), EPSILON);
+        assertEquals(7.3, statistics1.getMeanConfidenceUpper(), EPSILON);
+        assertEquals(3.0, statistics1.getMedianConfidenceLower(), EPSILON);
+        assertEquals(8.0, statistics1.getMedianConfidenceUpper(), EPSILON);
+    }
+
+    @Test
+    public void testBootstrapConfidenceIntervalWidth() {
+        // the 95% confidence interval of the mean of n normal samples is about 2 * 1.96 * sigma / sqrt(n) wide
+        Random random = new Random(42);
+        double[] samples = new double[1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = 100 + random.nextGaussian();
+        }
+        Statistics statistics = new Statistics(samples, 100);
+
+        double width = statistics.getMeanConfidenceUpper() - statistics.getMeanConfidenceLower();
+        assertEquals(2 * 1.96 / Math.sqrt(samples.length), width, 0.02);
+        assertEquals(width / 2 / statistics.getMean(), statistics.getRelativeError(), EPSILON);
+    }
+
+    @Test
+    public void testOutliers() {
+        Statistics statistics = new Statistics(new double[] { 9, 10, 10, 11, 10, 9, 11, 10, 100 }, 10);
+
+        assertEquals(1, statistics.getMadOutlierCount());
+        assertEquals(1, statistics.getTukeyOutlierCount());
+    }
+
+    @Test
+    public void testNoOutliers() {
+        Statistics statistics = new Statistics(new double[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, 5.5);
+
+        assertEquals(0, statistics.getMadOutlierCount());
+        assertEquals(0, statistics.getTukeyOutlierCount());
+    }
+
+    @Test
+    public void testCompareSeparatedSamples() {
+        Statistics fast = new Statistics(new double[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, 5.5);
+        Statistics slow = new Statistics(new double[] { 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 }, 11);
+
+        StatisticsComparison comparison = fast.compare(slow);
+
+        assertEquals(2.0, comparison.getSpeedup(), EPSILON);
+        // U = 12.5, normal approximation with continuity correction
+        assertEquals(0.0050754, comparison.getMannWhitneyPValue(), 1e-6);
+        // t = -3.6927, 18 degrees of freedom
+        assertEquals(0.0016654, comparison.getWelchPValue(), 1e-6);
+        assertTrue(comparison.isSignificant());
+    }
+
+    @Test
+    public void testCompareIdenticalSamples() {
+        Statistics statistics = new Statistics(new double[] { 1, 2, 3, 4, 5 }, 3);
+
+        StatisticsComparison comparison = statistics.compare(statistics);
+
+        assertEquals(1.0, comparison.getSpeedup(), EPSILON);
+        assertEquals(1.0, comparison.getMannWhitneyPValue(), EPSILON);
+        assertEquals(1.0, comparison.getWelchPValue(), EPSILON);
+        assertFalse(comparison.isSignificant());
+    }
+}
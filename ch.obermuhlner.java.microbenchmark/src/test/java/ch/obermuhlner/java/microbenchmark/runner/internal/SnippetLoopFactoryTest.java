@@ -0,0 +1,58 @@
+package ch.obermuhlner.java.microbenchmark.runner.internal;
+
+import ch.obermuhlner.java.microbenchmark.runner.Blackhole;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnippetLoopFactoryTest {
+
+    @Test
+    public void testCreateLoopConstructorDefinesNewClass() {
+        Constructor<?> constructor1 = SnippetLoopFactory.createLoopConstructor();
+        Constructor<?> constructor2 = SnippetLoopFactory.createLoopConstructor();
+
+        assertNotSame(constructor1.getDeclaringClass(), constructor2.getDeclaringClass());
+        assertNotSame(SpecializedSnippetLoop.class, constructor1.getDeclaringClass());
+        assertTrue(SnippetLoop.class.isAssignableFrom(constructor1.getDeclaringClass()));
+    }
+
+    @Test
+    public void testSameSnippetUnderSeveralBenchmarksHasDistinctLoopClasses() {
+        AtomicLong sum = new AtomicLong();
+        Consumer<Integer> snippet = sum::addAndGet;
+        Blackhole blackhole = new Blackhole();
+
+        BenchmarkSnippet benchmarkSnippet1 = new BenchmarkSnippet(SnippetLoop.CONSUMER, snippet);
+        BenchmarkSnippet benchmarkSnippet2 = new BenchmarkSnippet(SnippetLoop.CONSUMER, snippet);
+        SnippetLoop loop1 = benchmarkSnippet1.bind(blackhole, 1);
+        SnippetLoop loop2 = benchmarkSnippet2.bind(blackhole, 10);
+
+        assertNotSame(loop1.getClass(), loop2.getClass());
+        assertTrue(loop1.getClass().getName().startsWith(SpecializedSnippetLoop.class.getName()));
+
+        loop1.run(3);
+        loop2.run(4);
+        assertEquals(1 * 3 + 10 * 4, sum.get());
+    }
+
+    @Test
+    public void testBindSameBenchmarkSnippetReusesLoopClass() {
+        Consumer<Integer> snippet = value -> { };
+        Blackhole blackhole = new Blackhole();
+
+        BenchmarkSnippet benchmarkSnippet = new BenchmarkSnippet(SnippetLoop.CONSUMER, snippet);
+        SnippetLoop loop1 = benchmarkSnippet.bind(blackhole, 1);
+        SnippetLoop loop2 = benchmarkSnippet.bind(blackhole, 2);
+
+        assertNotSame(loop1, loop2);
+        assertSame(loop1.getClass(), loop2.getClass());
+    }
+}